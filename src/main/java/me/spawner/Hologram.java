@@ -2,11 +2,11 @@ package me.spawner;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import me.spawner.registry.SpawnerRecord;
 import me.spawner.utils.ColorUtils;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.CreatureSpawner;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
@@ -20,6 +20,7 @@ import org.joml.Vector3f;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Hologram {
     public static final Set<Hologram> paperHolograms = ConcurrentHashMap.newKeySet();
@@ -28,8 +29,12 @@ public class Hologram {
     private CreatureSpawner spawner;
     private final Location location;
     private double visibleDistance;
-    private final Map<UUID, Boolean> viewingPlayers = new ConcurrentHashMap<>();
-    private FileConfiguration languageConfig;
+    private final Map<UUID, Viewer> viewingPlayers = new ConcurrentHashMap<>();
+    private final PlayerGrid playerGrid;
+    private final HologramViewCap viewCap;
+    private int visibilityPass;
+    private boolean playerNearby;
+    private boolean playerInView;
     private boolean lastSpawnerState = true;
 
     private TextDisplay displayEntity;
@@ -46,10 +51,13 @@ public class Hologram {
     private final long maxDelayMs;
     private final double activationRangeSq;
     private long lastUpdateMillis = 0;
+    private final int idleMultiplier;
+    private int idleSkips;
+    private final long despawnGraceMs;
+    private long lastInViewMillis;
 
-    private Hologram(JavaPlugin plugin, FileConfiguration languageConfig, CreatureSpawner spawner, LivingEntity targetMob, Location location, double visibleDistance, boolean isMob, List<String> initialText, boolean seeThrough) {
+    private Hologram(JavaPlugin plugin, CreatureSpawner spawner, LivingEntity targetMob, Location location, double visibleDistance, boolean isMob, List<String> initialText, boolean seeThrough) {
         this.plugin = plugin;
-        this.languageConfig = languageConfig;
         this.spawner = spawner;
         this.location = location;
         this.isMobHologram = isMob;
@@ -57,6 +65,8 @@ public class Hologram {
         this.visibleDistance = visibleDistance;
         this.currentMobHologramText = (initialText != null) ? initialText : new ArrayList<>();
         this.seeThrough = seeThrough;
+        this.playerGrid = ((Spawner) plugin).getPlayerGrid();
+        this.viewCap = ((Spawner) plugin).getHologramViewCap();
 
         int configDelay = plugin.getConfig().getInt("Spawners.DEFAULT.delay", 500);
         this.maxDelayMs = (configDelay * 50L) + 3000L;
@@ -64,6 +74,9 @@ public class Hologram {
 
         int configRange = plugin.getConfig().getInt("Spawners.DEFAULT.range", 16);
         this.activationRangeSq = configRange * configRange;
+        this.idleMultiplier = Math.max(1, plugin.getConfig().getInt("hologram-idle-period-multiplier", 4));
+        this.despawnGraceMs = plugin.getConfig().getInt("hologram-despawn-grace-seconds", 10) * 1000L;
+        this.lastInViewMillis = System.currentTimeMillis();
 
         try {
             Class.forName("io.papermc.paper.threadedregions.scheduler.RegionScheduler");
@@ -83,7 +96,7 @@ public class Hologram {
             });
         } else {
             runOnLocation(location, () -> {
-                spawnSpawnerHolograms();
+                updateSpawnerLogic();
                 if (isFolia) {
                     startSpawnerVisibilityTaskFolia();
                 } else {
@@ -93,12 +106,12 @@ public class Hologram {
         }
     }
 
-    public static Hologram createSpawnerHologram(JavaPlugin plugin, FileConfiguration languageConfig, CreatureSpawner spawner, double visibleDistance, boolean seeThrough) {
-        return new Hologram(plugin, languageConfig, spawner, null, spawner.getLocation(), visibleDistance, false, null, seeThrough);
+    public static Hologram createSpawnerHologram(JavaPlugin plugin, CreatureSpawner spawner, double visibleDistance, boolean seeThrough) {
+        return new Hologram(plugin, spawner, null, spawner.getLocation(), visibleDistance, false, null, seeThrough);
     }
 
-    public static Hologram createMobHologram(JavaPlugin plugin, FileConfiguration languageConfig, LivingEntity mob, double visibleDistance, List<String> initialText, boolean seeThrough) {
-        return new Hologram(plugin, languageConfig, null, mob, mob.getLocation(), visibleDistance, true, initialText, seeThrough);
+    public static Hologram createMobHologram(JavaPlugin plugin, LivingEntity mob, double visibleDistance, List<String> initialText, boolean seeThrough) {
+        return new Hologram(plugin, null, mob, mob.getLocation(), visibleDistance, true, initialText, seeThrough);
     }
 
     public Location getLocation() {
@@ -139,8 +152,7 @@ public class Hologram {
         displayEntity = (TextDisplay) location.getWorld().spawnEntity(loc, EntityType.TEXT_DISPLAY);
         setupDisplayAttributes(displayEntity);
 
-        List<String> lines = getHologramLines();
-        displayEntity.setText(String.join("\n", lines));
+        displayEntity.setText(getHologramText());
         displayEntity.setVisibleByDefault(false);
     }
 
@@ -156,8 +168,15 @@ public class Hologram {
     }
 
     public void showTo(Player player) {
-        if (viewingPlayers.containsKey(player.getUniqueId())) return;
-        viewingPlayers.put(player.getUniqueId(), true);
+        Viewer viewer = viewingPlayers.get(player.getUniqueId());
+        if (viewer != null) {
+            viewer.seenPass = visibilityPass;
+            return;
+        }
+        if (displayEntity == null && !isMobHologram) {
+            spawnSpawnerHolograms();
+        }
+        viewingPlayers.put(player.getUniqueId(), new Viewer(player, visibilityPass));
 
         if (displayEntity != null && displayEntity.isValid()) {
             if (isFolia) {
@@ -170,6 +189,8 @@ public class Hologram {
 
     public void hideFrom(Player player) {
         if (viewingPlayers.remove(player.getUniqueId()) == null) return;
+        viewCap.release(player, this);
+        if (!player.isOnline()) return;
 
         if (displayEntity != null && displayEntity.isValid()) {
             if (isFolia) {
@@ -213,6 +234,9 @@ public class Hologram {
             displayEntity.remove();
         }
         displayEntity = null;
+        for (Viewer viewer : viewingPlayers.values()) {
+            viewCap.release(viewer.player, this);
+        }
         viewingPlayers.clear();
     }
 
@@ -226,8 +250,7 @@ public class Hologram {
         if (this.lastSpawnerState != isWorking) {
             this.lastSpawnerState = isWorking;
             if (displayEntity != null && displayEntity.isValid()) {
-                List<String> lines = getHologramLines();
-                displayEntity.setText(String.join("\n", lines));
+                displayEntity.setText(getHologramText());
             }
         }
     }
@@ -235,12 +258,15 @@ public class Hologram {
     public void updateSpawnerState(CreatureSpawner updatedSpawner) {
         this.spawner = updatedSpawner;
         if (displayEntity != null && displayEntity.isValid()) {
-            List<String> lines = getHologramLines();
-            displayEntity.setText(String.join("\n", lines));
+            displayEntity.setText(getHologramText());
         }
     }
 
-    public void tickPaper() {
+    public void tick() {
+        boolean idle = viewingPlayers.isEmpty() && (isMobHologram || !playerNearby);
+        if (idle && ++idleSkips < idleMultiplier) return;
+        idleSkips = 0;
+
         if (isMobHologram) {
             updateMobLogic();
         } else {
@@ -258,21 +284,11 @@ public class Hologram {
             targetMob.addPassenger(displayEntity);
         }
 
-        double distSq = visibleDistance * visibleDistance;
-
-        for (UUID uuid : new ArrayList<>(viewingPlayers.keySet())) {
-            Player p = Bukkit.getPlayer(uuid);
-            if (p == null || !p.isOnline() || p.getWorld() != targetMob.getWorld() || p.getLocation().distanceSquared(targetMob.getLocation()) > distSq) {
-                if (p != null) hideFrom(p);
-                else viewingPlayers.remove(uuid);
-            }
-        }
-
-        for (Player player : targetMob.getWorld().getNearbyEntitiesByType(Player.class, targetMob.getLocation(), visibleDistance)) {
-            if (player.getLocation().distanceSquared(targetMob.getLocation()) <= distSq) {
-                showTo(player);
-            }
-        }
+        Location mobLocation = targetMob.getLocation();
+        visibilityPass++;
+        playerGrid.forEachNear(mobLocation.getWorld(), mobLocation.getX(), mobLocation.getY(), mobLocation.getZ(), visibleDistance,
+                entry -> showTo(entry.player));
+        hideUnseenViewers();
     }
 
     private void updateSpawnerLogic() {
@@ -280,75 +296,76 @@ public class Hologram {
 
         if (location.getBlock().getType() != Material.SPAWNER) {
             removeHologram();
+            if (plugin instanceof Spawner) {
+                ((Spawner) plugin).getSpawnerRegistry().unregister(location);
+            }
             return;
         }
 
         double maxRadius = Math.max(visibleDistance, Math.sqrt(activationRangeSq));
-        boolean playerNearby = false;
         double distSq = visibleDistance * visibleDistance;
-
-        for (UUID uuid : new ArrayList<>(viewingPlayers.keySet())) {
-            Player p = Bukkit.getPlayer(uuid);
-            if (p == null || !p.isOnline() || p.getWorld() != location.getWorld() || p.getLocation().distanceSquared(location) > distSq) {
-                if (p != null) hideFrom(p);
-                else viewingPlayers.remove(uuid);
-            }
-        }
-
-        for (Player player : location.getWorld().getNearbyEntitiesByType(Player.class, location, maxRadius)) {
-            double dist = player.getLocation().distanceSquared(location);
-            if (dist <= this.activationRangeSq) {
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+
+        visibilityPass++;
+        playerNearby = false;
+        playerInView = false;
+        playerGrid.forEachNear(location.getWorld(), x, y, z, maxRadius, entry -> {
+            double dist = entry.distanceSquared(x, y, z);
+            if (dist <= activationRangeSq) {
                 playerNearby = true;
             }
             if (dist <= distSq) {
-                showTo(player);
+                playerInView = true;
+                if (viewCap.offer(entry.player, this, dist)) {
+                    showTo(entry.player);
+                }
             }
+        });
+        hideUnseenViewers();
+
+        long now = System.currentTimeMillis();
+        if (playerInView) {
+            lastInViewMillis = now;
+        } else if (displayEntity != null && now - lastInViewMillis > despawnGraceMs) {
+            removeEntitiesOnly();
         }
 
-        if (!playerNearby) {
-            lastSpawnTime += 1000;
+        if (!playerNearby && lastUpdateMillis > 0) {
+            lastSpawnTime += now - lastUpdateMillis;
         }
+        lastUpdateMillis = now;
 
-        boolean isWorking = (System.currentTimeMillis() - lastSpawnTime) <= maxDelayMs;
+        boolean isWorking = (now - lastSpawnTime) <= maxDelayMs;
         checkAndUpdateState(isWorking);
     }
 
+    private void hideUnseenViewers() {
+        for (Viewer viewer : viewingPlayers.values()) {
+            if (viewer.seenPass != visibilityPass) {
+                hideFrom(viewer.player);
+            }
+        }
+    }
+
     private void startMobVisibilityTaskFolia() {
-        this.updaterTask = targetMob.getScheduler().runAtFixedRate(plugin, (t) -> updateMobLogic(), null, 20L, 20L);
+        this.updaterTask = targetMob.getScheduler().runAtFixedRate(plugin, (t) -> tick(), null, initialDelay(), 20L);
     }
 
     private void startSpawnerVisibilityTaskFolia() {
-        this.updaterTask = Bukkit.getRegionScheduler().runAtFixedRate(plugin, location, (t) -> updateSpawnerLogic(), 20L, 20L);
+        this.updaterTask = Bukkit.getRegionScheduler().runAtFixedRate(plugin, location, (t) -> tick(), initialDelay(), 20L);
     }
 
-    private String capitalize(String str) {
-        if (str == null || str.isEmpty()) return str;
-        String lower = str.toLowerCase();
-        return lower.substring(0, 1).toUpperCase() + lower.substring(1);
+    private static long initialDelay() {
+        return 1L + ThreadLocalRandom.current().nextInt(20);
     }
 
-    private List<String> getHologramLines() {
+    private String getHologramText() {
         EntityType type = spawner != null ? spawner.getSpawnedType() : null;
-        String translatedTypeName = (type != null) ? languageConfig.getString("entity-types." + type.name(), capitalize(type.name())) : "Empty";
-        String modeTag = getLangString("mode-tags." + plugin.getConfig().getString("system", "advanced"));
-
-        String statusSymbol = lastSpawnerState ? getLangString("can_spawn") : getLangString("cannot_spawn");
-
-        List<String> rawLines = languageConfig.getStringList("spawnable-status");
-        List<String> processedLines = new ArrayList<>();
-
-        for (String line : rawLines) {
-            String processed = line.replace("%type%", translatedTypeName)
-                                   .replace("%mode%", modeTag)
-                                   .replace("%status%", statusSymbol);
-            processedLines.add(me.spawner.utils.ColorUtils.color(processed));
-        }
-
-        return processedLines;
-    }
-
-    private String getLangString(String path) {
-        return me.spawner.utils.ColorUtils.color(languageConfig.getString(path, path));
+        SpawnerRecord record = ((Spawner) plugin).getSpawnerRegistry().get(location);
+        int stackSize = record != null ? record.getStackSize() : 1;
+        return ((Spawner) plugin).getLanguageCache().spawnerText(type, lastSpawnerState, stackSize);
     }
 
     private void runOnLocation(Location loc, Runnable runnable) {
@@ -383,4 +400,14 @@ public class Hologram {
         }
         updaterTask = null;
     }
+
+    private static final class Viewer {
+        final Player player;
+        int seenPass;
+
+        Viewer(Player player, int seenPass) {
+            this.player = player;
+            this.seenPass = seenPass;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package me.spawner;
+
+import org.bukkit.Bukkit;
+
+public class HologramTicker {
+
+    private static final Hologram[] EMPTY = new Hologram[0];
+
+    private final Spawner plugin;
+    private Hologram[] ring = EMPTY;
+    private int cursor;
+    private int periodTicks;
+    private long budgetNanos;
+
+    public HologramTicker(Spawner plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start(int periodTicks, int budgetMicros) {
+        this.periodTicks = Math.max(1, periodTicks);
+        this.budgetNanos = budgetMicros * 1000L;
+        this.ring = EMPTY;
+        this.cursor = 0;
+        Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    private void tick() {
+        if (cursor >= ring.length) {
+            ring = Hologram.paperHolograms.toArray(EMPTY);
+            cursor = 0;
+            if (ring.length == 0) return;
+        }
+
+        // Each tick handles an equal share of the holograms so a full pass takes periodTicks ticks.
+        int quota = (ring.length + periodTicks - 1) / periodTicks;
+        long deadline = System.nanoTime() + budgetNanos;
+
+        for (int i = 0; i < quota && cursor < ring.length; i++) {
+            Hologram hologram = ring[cursor];
+            ring[cursor++] = null;
+            if (!Hologram.paperHolograms.contains(hologram)) continue;
+
+            hologram.tick();
+            if (budgetNanos > 0 && System.nanoTime() >= deadline) break;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package me.spawner;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class HologramViewCap implements Listener {
+
+    private final Map<UUID, Slots> slots = new ConcurrentHashMap<>();
+    private volatile int maxPerPlayer;
+
+    public void setMaxPerPlayer(int maxPerPlayer) {
+        this.maxPerPlayer = maxPerPlayer;
+        slots.clear();
+    }
+
+    public boolean offer(Player player, Hologram hologram, double distanceSq) {
+        int max = maxPerPlayer;
+        if (max <= 0) return true;
+
+        Slots playerSlots = slots.computeIfAbsent(player.getUniqueId(), k -> new Slots(max));
+        Hologram evicted;
+        synchronized (playerSlots) {
+            int index = playerSlots.indexOf(hologram);
+            if (index >= 0) {
+                playerSlots.distances[index] = distanceSq;
+                return true;
+            }
+            if (playerSlots.size < max) {
+                playerSlots.add(hologram, distanceSq);
+                return true;
+            }
+
+            int farthest = playerSlots.farthest();
+            if (playerSlots.distances[farthest] <= distanceSq) return false;
+            evicted = playerSlots.holograms[farthest];
+            playerSlots.holograms[farthest] = hologram;
+            playerSlots.distances[farthest] = distanceSq;
+        }
+
+        evicted.hideFrom(player);
+        return true;
+    }
+
+    public void release(Player player, Hologram hologram) {
+        Slots playerSlots = slots.get(player.getUniqueId());
+        if (playerSlots == null) return;
+
+        synchronized (playerSlots) {
+            int index = playerSlots.indexOf(hologram);
+            if (index >= 0) playerSlots.removeAt(index);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        slots.remove(event.getPlayer().getUniqueId());
+    }
+
+    private static final class Slots {
+        Hologram[] holograms;
+        double[] distances;
+        int size;
+
+        Slots(int capacity) {
+            holograms = new Hologram[capacity];
+            distances = new double[capacity];
+        }
+
+        int indexOf(Hologram hologram) {
+            for (int i = 0; i < size; i++) {
+                if (holograms[i] == hologram) return i;
+            }
+            return -1;
+        }
+
+        void add(Hologram hologram, double distanceSq) {
+            if (size == holograms.length) {
+                holograms = Arrays.copyOf(holograms, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            holograms[size] = hologram;
+            distances[size++] = distanceSq;
+        }
+
+        int farthest() {
+            int index = 0;
+            for (int i = 1; i < size; i++) {
+                if (distances[i] > distances[index]) index = i;
+            }
+            return index;
+        }
+
+        void removeAt(int index) {
+            holograms[index] = holograms[--size];
+            distances[index] = distances[size];
+            holograms[size] = null;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package me.spawner;
+
+import me.spawner.registry.ChunkKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class PlayerGrid implements Listener {
+
+    private final Spawner plugin;
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private final Map<UUID, Entry> published = new ConcurrentHashMap<>();
+    private final Set<UUID> publishers = ConcurrentHashMap.newKeySet();
+
+    private volatile Map<Long, List<Entry>> cells = Collections.emptyMap();
+    private volatile boolean running;
+
+    public PlayerGrid(Spawner plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        running = true;
+        if (plugin.isFolia()) {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                startPublisher(player);
+            }
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (t) -> rebuild(published.values()), 1L, 1L);
+        } else {
+            Bukkit.getScheduler().runTaskTimer(plugin, this::rebuildFromOnlinePlayers, 0L, 1L);
+        }
+    }
+
+    public void stop() {
+        running = false;
+        cells = Collections.emptyMap();
+    }
+
+    public void forEachNear(World world, double x, double y, double z, double radius, Consumer<Entry> action) {
+        Map<Long, List<Entry>> snapshot = cells;
+        if (snapshot.isEmpty()) return;
+
+        int worldId = ChunkKeys.worldId(world);
+        double radiusSq = radius * radius;
+        int minX = (int) Math.floor(x - radius) >> 4;
+        int maxX = (int) Math.floor(x + radius) >> 4;
+        int minZ = (int) Math.floor(z - radius) >> 4;
+        int maxZ = (int) Math.floor(z + radius) >> 4;
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                List<Entry> cell = snapshot.get(ChunkKeys.pack(worldId, cx, cz));
+                if (cell == null) continue;
+
+                for (Entry entry : cell) {
+                    if (entry.distanceSquared(x, y, z) <= radiusSq) {
+                        action.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean anyNear(World world, double x, double y, double z, double radius) {
+        Map<Long, List<Entry>> snapshot = cells;
+        if (snapshot.isEmpty()) return false;
+
+        int worldId = ChunkKeys.worldId(world);
+        double radiusSq = radius * radius;
+        int minX = (int) Math.floor(x - radius) >> 4;
+        int maxX = (int) Math.floor(x + radius) >> 4;
+        int minZ = (int) Math.floor(z - radius) >> 4;
+        int maxZ = (int) Math.floor(z + radius) >> 4;
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                List<Entry> cell = snapshot.get(ChunkKeys.pack(worldId, cx, cz));
+                if (cell == null) continue;
+
+                for (Entry entry : cell) {
+                    if (entry.distanceSquared(x, y, z) <= radiusSq) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (running && plugin.isFolia()) {
+            startPublisher(event.getPlayer());
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        published.remove(event.getPlayer().getUniqueId());
+    }
+
+    private void startPublisher(Player player) {
+        UUID uuid = player.getUniqueId();
+        if (!publishers.add(uuid)) return;
+
+        player.getScheduler().runAtFixedRate(plugin, (task) -> {
+            if (!running || !player.isOnline()) {
+                task.cancel();
+                publishers.remove(uuid);
+                published.remove(uuid);
+                return;
+            }
+            Location loc = player.getLocation();
+            published.put(uuid, new Entry(player, ChunkKeys.worldId(loc.getWorld()), loc.getX(), loc.getY(), loc.getZ()));
+        }, () -> {
+            publishers.remove(uuid);
+            published.remove(uuid);
+        }, 1L, 1L);
+    }
+
+    private void rebuildFromOnlinePlayers() {
+        List<Entry> entries = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.getLocation(scratch);
+            entries.add(new Entry(player, ChunkKeys.worldId(scratch.getWorld()), scratch.getX(), scratch.getY(), scratch.getZ()));
+        }
+        rebuild(entries);
+    }
+
+    private void rebuild(Iterable<Entry> entries) {
+        Map<Long, List<Entry>> next = new HashMap<>();
+        for (Entry entry : entries) {
+            long key = ChunkKeys.pack(entry.worldId, (int) Math.floor(entry.x) >> 4, (int) Math.floor(entry.z) >> 4);
+            next.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        }
+        cells = next;
+    }
+
+    public static final class Entry {
+        public final Player player;
+        public final int worldId;
+        public final double x;
+        public final double y;
+        public final double z;
+
+        Entry(Player player, int worldId, double x, double y, double z) {
+            this.player = player;
+            this.worldId = worldId;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        public double distanceSquared(double x, double y, double z) {
+            double dx = this.x - x;
+            double dy = this.y - y;
+            double dz = this.z - z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
@@ -4,7 +4,24 @@ import me.spawner.utils.JsonLogger;
 import me.spawner.utils.UpdateChecker;
 import me.spawner.utils.ConfigUpdater;
 import me.spawner.utils.ColorUtils;
+import me.spawner.utils.LanguageCache;
+import me.spawner.utils.PlatformResolver;
+import me.spawner.utils.LogQuery;
+import me.spawner.discord.WebhookDispatcher;
 import me.spawner.discord.WebhookManager; 
+import me.spawner.culling.CullingAnalyzer;
+import me.spawner.culling.CullingSnapshot;
+import me.spawner.culling.CullingWarnings;
+import me.spawner.culling.DirtyChunkQueue;
+import me.spawner.loot.DropBuffer;
+import me.spawner.loot.LootProfiles;
+import me.spawner.engine.SpawnerTickEngine;
+import me.spawner.registry.ChunkKeys;
+import me.spawner.registry.ChunkMobCounter;
+import me.spawner.registry.SpawnerRecord;
+import me.spawner.registry.SpawnerRegistry;
+import me.spawner.registry.SpawnerStateStore;
+import me.spawner.stacking.MobStacker;
 import org.bukkit.*;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.block.Block;
@@ -37,15 +54,18 @@ import org.bukkit.inventory.meta.BlockStateMeta;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.bstats.bukkit.Metrics;
 
 import java.io.File;
-import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -57,38 +77,56 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
     private final NamespacedKey SPAWNER_TYPE_KEY = new NamespacedKey(this, "spawner_type");
     private final NamespacedKey NERFED_MOB_KEY = new NamespacedKey(this, "nerfed_mob");
 
-    private final Map<Location, Hologram> holograms = new ConcurrentHashMap<>();
-    private final Map<UUID, MobCullingInfo> warnedMobs = new ConcurrentHashMap<>();
+    private final SpawnerRegistry spawnerRegistry = new SpawnerRegistry();
+    private final SpawnerStateStore spawnerStateStore = new SpawnerStateStore(this, spawnerRegistry);
+    private SpawnerMenu spawnerMenu;
+    private int spawnerStateFlushSeconds;
+    private final LootProfiles lootProfiles = new LootProfiles();
+    private final DropBuffer dropBuffer = new DropBuffer(this);
+    private boolean virtualKills;
+    private boolean dropStorage;
+    private boolean mergeDrops;
+    private int dropFlushTicks;
+    private ChunkMobCounter mobCounter;
+    private final MobStacker mobStacker = new MobStacker(this);
+    private final CullingWarnings cullingWarnings = new CullingWarnings(this);
+    private final DirtyChunkQueue dirtyCullingChunks = new DirtyChunkQueue();
 
     private String systemMode;
     private boolean naturalSpawnerBreak;
     private boolean allowEmptySpawnerBreak;
     private JsonLogger jsonLogger;
     private FileConfiguration languageConfig;
+    private LanguageCache languageCache;
     private int range, delay, amount, maxMobsPerChunk, hRadius;
     private boolean chunkLimitEnabled, nerfMobs;
     private int spawnerLimitPerChunk;
+    private boolean stackingEnabled;
+    private int maxStackSize;
+    private int stackBreakAmount;
+    private int mobCounterResyncPerTick;
 
     private boolean hologramsEnabledByConfig = false;
     private boolean canUseHolograms = false;
     private boolean cullingEnabled = false;
     private int cullingWarnDuration;
     private int cullingCheckInterval;
+    private int cullingTickBudgetMicros;
+    private boolean cullingAsyncAnalysis;
+    private int cullingAnalysisThreads;
+    private ExecutorService cullingAnalysisPool;
     private double hologramVisibleDistance;
     private boolean hologramSeeThrough;
-    private Set<String> cullingValidMobTypes;
+    private int hologramUpdatePeriod;
+    private int hologramTickBudgetMicros;
+    private Set<EntityType> cullingValidMobTypes;
 
     private boolean isFolia = false;
-
-    private static class MobCullingInfo {
-        final Hologram hologram;
-        final Object task; 
-
-        MobCullingInfo(Hologram hologram, Object task) {
-            this.hologram = hologram;
-            this.task = task;
-        }
-    }
+    private final PlayerGrid playerGrid = new PlayerGrid(this);
+    private final SpawnerTickEngine tickEngine = new SpawnerTickEngine(this);
+    private final HologramTicker hologramTicker = new HologramTicker(this);
+    private final HologramViewCap hologramViewCap = new HologramViewCap();
+    private final PlatformResolver platformResolver = new PlatformResolver();
 
     @Override
     public void onEnable() {
@@ -107,29 +145,44 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
         loadLanguage();
         loadConfigValues();
 
-        getServer().getPluginManager().registerEvents(new SpawnerMenu(this), this);
+        this.spawnerMenu = new SpawnerMenu(this);
+        getServer().getPluginManager().registerEvents(spawnerMenu, this);
 
         if (hologramsEnabledByConfig) {
             canUseHolograms = true;
             getLogger().info("Hologram features enabled (Using Bukkit TextDisplay API).");
+            playerGrid.start();
             
             if (!isFolia) {
-                getServer().getScheduler().runTaskTimer(this, () -> {
-                    for (Hologram hologram : Hologram.paperHolograms) {
-                        hologram.tickPaper();
-                    }
-                }, 20L, 20L);
+                hologramTicker.start(hologramUpdatePeriod, hologramTickBudgetMicros);
             }
             
         } else {
             canUseHolograms = false;
+            if (tickEngine.isEnabled()) playerGrid.start();
         }
 
+        platformResolver.bind(getLogger());
         this.jsonLogger = new JsonLogger(this);
         this.webhookManager = new WebhookManager(this);
+        this.mobCounter = new ChunkMobCounter(this);
+        mobCounter.setAddListener(this::markChunkForCulling);
+        mobCounter.setWeigher(mobStacker::weightOf);
         getCommand("spsystem").setExecutor(this);
         getCommand("spsystem").setTabCompleter(this);
         getServer().getPluginManager().registerEvents(this, this);
+        mobCounter.register();
+        getServer().getPluginManager().registerEvents(mobStacker, this);
+        getServer().getPluginManager().registerEvents(tickEngine, this);
+        getServer().getPluginManager().registerEvents(playerGrid, this);
+        getServer().getPluginManager().registerEvents(hologramViewCap, this);
+        getServer().getPluginManager().registerEvents(platformResolver, this);
+        mobCounter.start(mobCounterResyncPerTick);
+        spawnerStateStore.openJournal(getConfig().getLong("xp-journal-interval-millis", 2000));
+        spawnerStateStore.start(spawnerStateFlushSeconds);
+        getServer().getPluginManager().registerEvents(spawnerStateStore, this);
+        dropBuffer.start(dropFlushTicks);
+        tickEngine.start();
 
         loadAllSpawnersInLoadedChunks();
 
@@ -142,7 +195,14 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
 
     @Override
     public void onDisable() {
-        stopAllTasksAndClear();
+        stopAllTasksAndClear(true);
+        spawnerStateStore.closeJournal();
+        if (jsonLogger != null) {
+            jsonLogger.close();
+        }
+        if (webhookManager != null) {
+            webhookManager.close();
+        }
         getLogger().info("SpawnerSystem plugin disabled!");
     }
 
@@ -150,7 +210,63 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
         return languageConfig;
     }
 
-    private void stopAllTasksAndClear() {
+    public LanguageCache getLanguageCache() {
+        return languageCache;
+    }
+
+    public SpawnerRegistry getSpawnerRegistry() {
+        return spawnerRegistry;
+    }
+
+    public SpawnerStateStore getSpawnerStateStore() {
+        return spawnerStateStore;
+    }
+
+    public SpawnerMenu getSpawnerMenu() {
+        return spawnerMenu;
+    }
+
+    public LootProfiles getLootProfiles() {
+        return lootProfiles;
+    }
+
+    public DropBuffer getDropBuffer() {
+        return dropBuffer;
+    }
+
+    public boolean isVirtualKills() {
+        return virtualKills;
+    }
+
+    public boolean isDropStorage() {
+        return dropStorage;
+    }
+
+    public boolean isMergeDrops() {
+        return mergeDrops;
+    }
+
+    public ChunkMobCounter getMobCounter() {
+        return mobCounter;
+    }
+
+    public PlayerGrid getPlayerGrid() {
+        return playerGrid;
+    }
+
+    public PlatformResolver getPlatformResolver() {
+        return platformResolver;
+    }
+
+    public HologramViewCap getHologramViewCap() {
+        return hologramViewCap;
+    }
+
+    public boolean isFolia() {
+        return isFolia;
+    }
+
+    private void stopAllTasksAndClear(boolean shuttingDown) {
         if (isFolia) {
             Bukkit.getGlobalRegionScheduler().cancelTasks(this);
             Bukkit.getAsyncScheduler().cancelTasks(this);
@@ -158,20 +274,37 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
             Bukkit.getScheduler().cancelTasks(this);
         }
 
-        if (canUseHolograms) {
-            new ArrayList<>(holograms.values()).forEach(Hologram::removeHologram);
-            holograms.clear();
+        // On reload the region tasks queued here run before the chunks are registered again.
+        if (shuttingDown) {
+            spawnerStateStore.flushDirtyNow();
+            dropBuffer.flushNow();
+        } else {
+            spawnerStateStore.flushDirty();
+            dropBuffer.flush();
         }
-        
-        new ArrayList<>(warnedMobs.values()).forEach(info -> {
-            cancelTask(info.task);
-            if (info.hologram != null) info.hologram.removeHologram();
+
+        spawnerRegistry.forEach(record -> {
+            Hologram hologram = record.getHologram();
+            if (hologram != null) {
+                record.setHologram(null);
+                hologram.removeHologram();
+            }
         });
-        warnedMobs.clear();
+        spawnerRegistry.clear();
+        tickEngine.clear();
+        playerGrid.stop();
+        
+        cullingWarnings.clear();
+        dirtyCullingChunks.clear();
+
+        if (cullingAnalysisPool != null) {
+            cullingAnalysisPool.shutdownNow();
+            cullingAnalysisPool = null;
+        }
     }
 
     private void reloadPlugin() {
-        stopAllTasksAndClear();
+        stopAllTasksAndClear(false);
         
         saveDefaultConfig();
         
@@ -182,15 +315,27 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
 
         if (hologramsEnabledByConfig) {
             canUseHolograms = true;
+            playerGrid.start();
+            if (!isFolia) {
+                hologramTicker.start(hologramUpdatePeriod, hologramTickBudgetMicros);
+            }
         } else {
             canUseHolograms = false;
+            if (tickEngine.isEnabled()) playerGrid.start();
         }
         if (webhookManager != null) {
             webhookManager.loadConfig();
         }
 
+        if (jsonLogger != null) {
+            jsonLogger.close();
+        }
         this.jsonLogger = new JsonLogger(this);
 
+        mobCounter.start(mobCounterResyncPerTick);
+        spawnerStateStore.start(spawnerStateFlushSeconds);
+        dropBuffer.start(dropFlushTicks);
+        tickEngine.start();
         loadAllSpawnersInLoadedChunks();
         if (cullingEnabled) {
             startMobCullingTask();
@@ -210,16 +355,45 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
         hRadius = cfg.getInt("Spawners.DEFAULT.spawn-horizontal-radius", 3);
         chunkLimitEnabled = cfg.getBoolean("chunk-limits.enabled", true);
         spawnerLimitPerChunk = cfg.getInt("chunk-limits.spawner-limit", 5);
+        stackingEnabled = cfg.getBoolean("spawner-stacking.enabled", false);
+        maxStackSize = Math.max(1, cfg.getInt("spawner-stacking.max-stack", 16));
+        stackBreakAmount = Math.max(1, cfg.getInt("spawner-stacking.break-amount", 1));
+        mobCounterResyncPerTick = cfg.getInt("mob-counter.resync-chunks-per-tick", 2);
+        mobStacker.configure(cfg.getBoolean("mob-stacking.enabled", false),
+                cfg.getDouble("mob-stacking.merge-radius", 4.0),
+                cfg.getInt("mob-stacking.max-stack", 64));
+        spawnerStateFlushSeconds = cfg.getInt("spawner-state-flush-seconds", 30);
+        virtualKills = cfg.getBoolean("auto-slayer.virtual-kills", false);
+        lootProfiles.setLearnSamples(cfg.getInt("auto-slayer.learn-samples", 16));
+        dropFlushTicks = cfg.getInt("auto-slayer.drop-flush-ticks", 40);
+        mergeDrops = cfg.getBoolean("auto-slayer.merge-drops", false);
+        tickEngine.configure(cfg.getBoolean("tick-engine.enabled", false), delay, amount, hRadius, range, maxMobsPerChunk,
+                cfg.getInt("tick-engine.spawners-per-tick", 50),
+                cfg.getInt("tick-engine.tick-budget-micros", 1000));
+        dropStorage = cfg.getBoolean("auto-slayer.storage.enabled", false);
+        spawnerStateStore.setStorageLimits(cfg.getLong("auto-slayer.storage.max-items", 100000), cfg.getInt("auto-slayer.storage.max-types", 45));
         nerfMobs = cfg.getBoolean("nerf-spawner-mobs", true);
 
         hologramsEnabledByConfig = cfg.getBoolean("hologram-enabled", true);
         hologramVisibleDistance = cfg.getDouble("hologram-distance", 8.0);
         hologramSeeThrough = cfg.getBoolean("SeeThrough", true); 
+        hologramUpdatePeriod = cfg.getInt("hologram-update-period-ticks", 20);
+        hologramTickBudgetMicros = cfg.getInt("hologram-tick-budget-micros", 1000);
+        hologramViewCap.setMaxPerPlayer(cfg.getInt("hologram-max-per-player", 32));
 
         cullingEnabled = cfg.getBoolean("chunk-mob-culling.enabled", true);
         cullingWarnDuration = cfg.getInt("chunk-mob-culling.warning-duration-seconds", 20);
         cullingCheckInterval = cfg.getInt("chunk-mob-culling.check-interval-ticks", 100);
-        cullingValidMobTypes = new HashSet<>(cfg.getStringList("chunk-mob-culling.valid-mobs"));
+        cullingTickBudgetMicros = cfg.getInt("chunk-mob-culling.tick-budget-micros", 500);
+        cullingAsyncAnalysis = cfg.getBoolean("chunk-mob-culling.async-analysis", false);
+        cullingAnalysisThreads = Math.max(1, cfg.getInt("chunk-mob-culling.analysis-threads", 1));
+        Set<EntityType> validMobTypes = EnumSet.noneOf(EntityType.class);
+        for (String typeName : cfg.getStringList("chunk-mob-culling.valid-mobs")) {
+            try {
+                validMobTypes.add(EntityType.valueOf(typeName.toUpperCase()));
+            } catch (IllegalArgumentException ignored) {}
+        }
+        cullingValidMobTypes = validMobTypes;
     }
 
     private void loadLanguages() {
@@ -242,17 +416,18 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
             languageFile = new File(langFolder, "en.yml");
         }
         languageConfig = YamlConfiguration.loadConfiguration(languageFile);
+        languageCache = new LanguageCache(languageConfig, getConfig().getString("system", "advanced"));
     }
 
-    private void createHologramForSpawner(CreatureSpawner spawnerState) {
+    private void createHologramForSpawner(SpawnerRecord record, CreatureSpawner spawnerState) {
         if (!canUseHolograms || !hologramsEnabledByConfig) return;
+        if (record.getHologram() != null) return;
 
         Location loc = spawnerState.getLocation();
-        if (holograms.containsKey(loc)) return;
-
         Runnable task = () -> {
-            Hologram hologram = Hologram.createSpawnerHologram(this, languageConfig, spawnerState, hologramVisibleDistance, hologramSeeThrough);
-            holograms.put(loc, hologram);
+            if (record.getHologram() != null) return;
+            Hologram hologram = Hologram.createSpawnerHologram(this, spawnerState, hologramVisibleDistance, hologramSeeThrough);
+            record.setHologram(hologram);
         };
 
         if (isFolia) {
@@ -262,11 +437,20 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
         }
     }
 
-    private void removeHologramForSpawner(Location loc) {
-        if (!canUseHolograms || !hologramsEnabledByConfig) return;
+    private void removeSpawner(Location loc) {
+        SpawnerRecord record = spawnerRegistry.unregister(loc);
+        if (record == null) return;
+        spawnerStateStore.onRemoved(record);
 
-        Hologram hologram = holograms.remove(loc);
+        // Whatever the broken spawner still had in its storage is dropped where it stood.
+        for (Material material : record.getStorage().materials()) {
+            long stored = spawnerStateStore.takeFromStorage(record, material, Long.MAX_VALUE);
+            if (stored > 0) dropBuffer.add(record, material, stored);
+        }
+
+        Hologram hologram = record.getHologram();
         if (hologram != null) {
+            record.setHologram(null);
             Runnable task = hologram::removeHologram;
 
             if (isFolia) {
@@ -277,31 +461,32 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
         }
     }
 
-    private void loadAllSpawnersInLoadedChunks() {
-        if (!canUseHolograms || !hologramsEnabledByConfig) return;
+    private void loadSpawnersInChunk(Chunk chunk) {
+        for (BlockState tileEntity : chunk.getTileEntities()) {
+            if (tileEntity instanceof CreatureSpawner spawnerState) {
+                SpawnerRecord record = spawnerRegistry.register(spawnerState);
+                if (!record.isLoaded()) spawnerStateStore.load(record, spawnerState);
+                tickEngine.schedule(record);
+                if (!hologramsEnabledByConfig) continue;
 
+                applySettingsToSpawner(spawnerState);
+                createHologramForSpawner(record, spawnerState);
+            }
+        }
+        spawnerStateStore.onChunkLoaded(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    private void loadAllSpawnersInLoadedChunks() {
         if (isFolia) {
             for (World world : Bukkit.getWorlds()) {
                 for (Chunk chunk : world.getLoadedChunks()) {
-                    Bukkit.getRegionScheduler().execute(this, world, chunk.getX(), chunk.getZ(), () -> {
-                        for (BlockState tileEntity : chunk.getTileEntities()) {
-                            if (tileEntity instanceof CreatureSpawner spawnerState) {
-                                applySettingsToSpawner(spawnerState);
-                                createHologramForSpawner(spawnerState);
-                            }
-                        }
-                    });
+                    Bukkit.getRegionScheduler().execute(this, world, chunk.getX(), chunk.getZ(), () -> loadSpawnersInChunk(chunk));
                 }
             }
         } else {
             for (World world : Bukkit.getWorlds()) {
                 for (Chunk chunk : world.getLoadedChunks()) {
-                    for (BlockState tileEntity : chunk.getTileEntities()) {
-                        if (tileEntity instanceof CreatureSpawner spawnerState) {
-                            applySettingsToSpawner(spawnerState);
-                            createHologramForSpawner(spawnerState);
-                        }
-                    }
+                    loadSpawnersInChunk(chunk);
                 }
             }
         }
@@ -316,7 +501,8 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
             spawner.setMaxSpawnDelay(delay);
         }
 
-        spawner.setSpawnCount(amount);
+        SpawnerRecord record = spawnerRegistry.get(spawner.getLocation());
+        spawner.setSpawnCount(amount * (record != null ? record.getStackSize() : 1));
         spawner.setMaxNearbyEntities(999);
         spawner.setRequiredPlayerRange(range);
         spawner.setSpawnRange(hRadius);
@@ -325,16 +511,7 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
 
     @EventHandler
     public void onChunkLoad(ChunkLoadEvent event) {
-        if (!hologramsEnabledByConfig) return;
-        
-        Runnable task = () -> {
-            for (BlockState tileEntity : event.getChunk().getTileEntities()) {
-                if (tileEntity instanceof CreatureSpawner spawnerState) {
-                    applySettingsToSpawner(spawnerState);
-                    createHologramForSpawner(spawnerState);
-                }
-            }
-        };
+        Runnable task = () -> loadSpawnersInChunk(event.getChunk());
 
         if (isFolia) {
             Bukkit.getRegionScheduler().execute(this, event.getWorld(), event.getChunk().getX(), event.getChunk().getZ(), task);
@@ -345,19 +522,12 @@ public final class Spawner extends JavaPlugin implements CommandExecutor, TabCom
 
     @EventHandler
     public void onChunkUnload(ChunkUnloadEvent event) {
-        if (!canUseHolograms) return;
-        
-        Iterator<Map.Entry<Location, Hologram>> it = holograms.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Location, Hologram> entry = it.next();
-            Location loc = entry.getKey();
-            
-            if (loc.getWorld().equals(event.getWorld()) && 
-                loc.getBlockX() >> 4 == event.getChunk().getX() && 
-                loc.getBlockZ() >> 4 == event.getChunk().getZ()) {
-                
-                entry.getValue().removeHologram();
-                it.remove();
+        for (SpawnerRecord record : spawnerRegistry.removeChunk(ChunkKeys.of(event.getChunk()))) {
+            spawnerStateStore.save(record);
+            Hologram hologram = record.getHologram();
+            if (hologram != null) {
+                record.setHologram(null);
+                hologram.removeHologram();
             }
         }
     }
@@ -367,14 +537,7 @@ public void onSpawnerPlace(BlockPlaceEvent event) {
     if (event.getBlockPlaced().getType() != Material.SPAWNER) return;
 
     if (chunkLimitEnabled) {
-        int spawnerCount = 0;
-        for (BlockState blockState : event.getBlock().getChunk().getTileEntities()) {
-            if (blockState instanceof CreatureSpawner) {
-                if (!blockState.getLocation().equals(event.getBlockPlaced().getLocation())) {
-                    spawnerCount++;
-                }
-            }
-        }
+        int spawnerCount = spawnerRegistry.countInChunk(event.getBlockPlaced().getLocation());
         if (spawnerCount >= spawnerLimitPerChunk) {
             event.setCancelled(true);
             event.getPlayer().sendMessage(getMessage("chunk-limit-exceeded"));
@@ -385,32 +548,93 @@ public void onSpawnerPlace(BlockPlaceEvent event) {
     if (event.getBlockPlaced().getState() instanceof CreatureSpawner spawnerState) {
         spawnerState.getPersistentDataContainer().set(PLAYER_PLACED_KEY, PersistentDataType.BOOLEAN, true);
 
-        ItemMeta meta = event.getItemInHand().getItemMeta();
-        if (meta != null) {
-            if (meta.getPersistentDataContainer().has(SPAWNER_TYPE_KEY, PersistentDataType.STRING)) {
-                String typeStr = meta.getPersistentDataContainer().get(SPAWNER_TYPE_KEY, PersistentDataType.STRING);
-                if (typeStr != null && !"EMPTY".equals(typeStr)) {
-                    try {
-                        spawnerState.setSpawnedType(EntityType.valueOf(typeStr));
-                    } catch (Exception ignored) {}
-                }
-            } else if (meta instanceof BlockStateMeta bsm) {
-                if (bsm.getBlockState() instanceof CreatureSpawner itemSpawnerState) {
-                    spawnerState.setSpawnedType(itemSpawnerState.getSpawnedType());
-                }
-            }
+        EntityType itemType = getSpawnerItemType(event.getItemInHand());
+        if (itemType != null) {
+            spawnerState.setSpawnedType(itemType);
         }
 
         applySettingsToSpawner(spawnerState);
-        createHologramForSpawner(spawnerState);
     }
 }
 
+    private EntityType getSpawnerItemType(ItemStack item) {
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return null;
+        if (meta.getPersistentDataContainer().has(SPAWNER_TYPE_KEY, PersistentDataType.STRING)) {
+            String typeStr = meta.getPersistentDataContainer().get(SPAWNER_TYPE_KEY, PersistentDataType.STRING);
+            if (typeStr != null && !"EMPTY".equals(typeStr)) {
+                try {
+                    return EntityType.valueOf(typeStr);
+                } catch (Exception ignored) {}
+            }
+        } else if (meta instanceof BlockStateMeta bsm) {
+            if (bsm.getBlockState() instanceof CreatureSpawner itemSpawnerState) {
+                return itemSpawnerState.getSpawnedType();
+            }
+        }
+        return null;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onSpawnerStack(PlayerInteractEvent event) {
+        if (!stackingEnabled || event.getAction() != org.bukkit.event.block.Action.RIGHT_CLICK_BLOCK) return;
+        if (event.getHand() != EquipmentSlot.HAND || event.getItem() == null || event.getItem().getType() != Material.SPAWNER) return;
+        Block block = event.getClickedBlock();
+        if (block == null || block.getType() != Material.SPAWNER) return;
+
+        Player player = event.getPlayer();
+        if (player.isSneaking()) return;
+        if (!(block.getState() instanceof CreatureSpawner spawnerState)) return;
+        if (!spawnerState.getPersistentDataContainer().has(PLAYER_PLACED_KEY)) return;
+
+        EntityType type = spawnerState.getSpawnedType();
+        if (type == null || type != getSpawnerItemType(event.getItem())) return;
+
+        event.setCancelled(true);
+        SpawnerRecord record = spawnerStateStore.recordFor(spawnerState);
+        int stackSize = record.getStackSize();
+        if (stackSize >= maxStackSize) {
+            player.sendMessage(getMessage("spawner-stack-full").replace("%max%", String.valueOf(maxStackSize)));
+            return;
+        }
+        if (chunkLimitEnabled && spawnerRegistry.countInChunk(block.getLocation()) + stackSize >= spawnerLimitPerChunk) {
+            player.sendMessage(getMessage("chunk-limit-exceeded"));
+            return;
+        }
+
+        if (player.getGameMode() != GameMode.CREATIVE) {
+            ItemStack item = event.getItem();
+            item.setAmount(item.getAmount() - 1);
+        }
+        setStackSize(record, spawnerState, stackSize + 1);
+        player.playSound(block.getLocation(), Sound.BLOCK_STONE_PLACE, 1f, 1f);
+        player.sendMessage(getMessage("spawner-stacked").replace("%amount%", String.valueOf(stackSize + 1)));
+        jsonLogger.log(player, block, "PLACED");
+        webhookManager.sendPlaceWebhook(player, block.getLocation(), type.name());
+    }
+
+    private void setStackSize(SpawnerRecord record, CreatureSpawner spawnerState, int stackSize) {
+        spawnerStateStore.setStackSize(record, stackSize);
+        applySettingsToSpawner(spawnerState);
+        // Written right away, so the new count is on the block even if the server stops before the next flush.
+        spawnerStateStore.save(record);
+
+        Hologram hologram = record.getHologram();
+        if (canUseHolograms && hologram != null) {
+            hologram.updateSpawnerState(spawnerState);
+        }
+    }
+
 @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
 public void onSpawnerPlaceLog(BlockPlaceEvent event) {
     if (event.getBlockPlaced().getType() != Material.SPAWNER) return;
     if (!(event.getBlockPlaced().getState() instanceof CreatureSpawner spawnerState)) return;
 
+    SpawnerRecord record = spawnerRegistry.register(spawnerState);
+    spawnerStateStore.onPlaced(record, spawnerState);
+    tickEngine.schedule(record);
+    createHologramForSpawner(record, spawnerState);
+
     jsonLogger.log(event.getPlayer(), event.getBlockPlaced(), "PLACED");
 
     String typeName = spawnerState.getSpawnedType() != null 
@@ -481,13 +705,24 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
             return;
         }
 
-        removeHologramForSpawner(block.getLocation());
+        SpawnerRecord stackRecord = spawnerRegistry.get(block.getLocation());
+        int stackSize = stackRecord != null ? stackRecord.getStackSize() : 1;
+        // With stacking turned off, a leftover stack is given back in one go.
+        int popped = stackingEnabled ? Math.min(stackSize, stackBreakAmount) : stackSize;
+
+        if (popped < stackSize) {
+            event.setCancelled(true);
+            setStackSize(stackRecord, spawnerState, stackSize - popped);
+        } else {
+            removeSpawner(block.getLocation());
+        }
 
         jsonLogger.log(player, block, "BROKE");
         event.setDropItems(false);
         event.setExpToDrop(0);
 
         ItemStack spawnerItem = (brokenType != null) ? createSpawnerItem(brokenType) : createEmptySpawner();
+        spawnerItem.setAmount(popped);
    Map<Integer, ItemStack> leftovers = player.getInventory().addItem(spawnerItem);
    if (leftovers.isEmpty()) {
     player.sendMessage(getMessage("spawner-collected"));
@@ -515,50 +750,62 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
         webhookManager.sendBreakWebhook(player, block.getLocation(), typeName, itemInHand);
     }
 
-    @EventHandler
+    @EventHandler(ignoreCancelled = true)
     public void onSpawnerSpawn(SpawnerSpawnEvent event) {
         CreatureSpawner spawner = event.getSpawner();
         
-        if (canUseHolograms && holograms.containsKey(spawner.getLocation())) {
-            holograms.get(spawner.getLocation()).recordSuccessfulSpawn(spawner);
+        if (canUseHolograms) {
+            SpawnerRecord record = spawnerRegistry.get(spawner.getLocation());
+            if (record != null && record.getHologram() != null) {
+                record.getHologram().recordSuccessfulSpawn(spawner);
+            }
         }
 
         EntityType type = spawner.getSpawnedType();
         if (type == null) return;
         
-        int currentMobsInChunk = 0;
-        for (Entity entity : spawner.getChunk().getEntities()) {
-            if (entity.getType() == type) {
-                currentMobsInChunk++;
-            }
-        }
+        int currentMobsInChunk = mobCounter.count(ChunkKeys.of(spawner.getLocation()), type);
         if (currentMobsInChunk >= maxMobsPerChunk) {
             event.setCancelled(true);
             return;
         }
 
-        if (nerfMobs && event.getEntity() instanceof LivingEntity) {
-    LivingEntity livingEntity = (LivingEntity) event.getEntity();
-    livingEntity.getPersistentDataContainer().set(NERFED_MOB_KEY, PersistentDataType.BOOLEAN, true);
-    
-    if (type == EntityType.VILLAGER || type == EntityType.ZOMBIE_VILLAGER) {
-        if (livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED) != null) {
-            livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED).setBaseValue(0.0);
-        }
-        if (type == EntityType.ZOMBIE_VILLAGER && livingEntity.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE) != null) {
-            livingEntity.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE).setBaseValue(0.0);
-        }
-        livingEntity.setCanPickupItems(false);
-    } else {
-        livingEntity.setCanPickupItems(false);
-        if (livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED) != null) {
-            livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED).setBaseValue(0.0);
+        if (event.getEntity() instanceof LivingEntity livingEntity) {
+            nerfSpawnerMob(livingEntity);
         }
-        if (livingEntity.getAttribute(Attribute.GENERIC_FOLLOW_RANGE) != null) {
-            livingEntity.getAttribute(Attribute.GENERIC_FOLLOW_RANGE).setBaseValue(0.0);
+    }
+
+    public void nerfSpawnerMob(LivingEntity livingEntity) {
+        if (!nerfMobs) return;
+        EntityType type = livingEntity.getType();
+        livingEntity.getPersistentDataContainer().set(NERFED_MOB_KEY, PersistentDataType.BOOLEAN, true);
+
+        if (type == EntityType.VILLAGER || type == EntityType.ZOMBIE_VILLAGER) {
+            if (livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED) != null) {
+                livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED).setBaseValue(0.0);
+            }
+            if (type == EntityType.ZOMBIE_VILLAGER && livingEntity.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE) != null) {
+                livingEntity.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE).setBaseValue(0.0);
+            }
+            livingEntity.setCanPickupItems(false);
+        } else {
+            livingEntity.setCanPickupItems(false);
+            if (livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED) != null) {
+                livingEntity.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED).setBaseValue(0.0);
+            }
+            if (livingEntity.getAttribute(Attribute.GENERIC_FOLLOW_RANGE) != null) {
+                livingEntity.getAttribute(Attribute.GENERIC_FOLLOW_RANGE).setBaseValue(0.0);
+            }
         }
     }
-  }
+
+    // A spawner whose every spawn was cancelled tries again next tick, so its delay is restarted by hand.
+    public void restartSpawnDelay(CreatureSpawner spawner) {
+        if (spawner.getDelay() > 0) return;
+        int min = spawner.getMinSpawnDelay();
+        int max = Math.max(min, spawner.getMaxSpawnDelay());
+        spawner.setDelay(min + ThreadLocalRandom.current().nextInt(max - min + 1));
+        spawner.update(false, false);
     }
     
     @EventHandler
@@ -613,13 +860,15 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
         handleSpawnEgg(event.getPlayer(), event.getItem(), block.getChunk(), event);
 
         if (block.getType() == Material.SPAWNER && event.getItem().getType().name().endsWith("_SPAWN_EGG")) {
-            if (canUseHolograms && holograms.containsKey(block.getLocation())) {
+            SpawnerRecord record = spawnerRegistry.get(block.getLocation());
+            if (record != null) {
                 Location loc = block.getLocation();
                 
                 Runnable updateTask = () -> {
                     if (loc.getBlock().getState() instanceof CreatureSpawner newSpawner) {
-                        Hologram holo = holograms.get(loc);
-                        if (holo != null) {
+                        record.setType(newSpawner.getSpawnedType());
+                        Hologram holo = record.getHologram();
+                        if (canUseHolograms && holo != null) {
                             holo.updateSpawnerState(newSpawner);
                         }
                     }
@@ -656,12 +905,7 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
             return;
         }
 
-        int currentMobsInChunk = 0;
-        for (Entity entity : chunk.getEntities()) {
-            if (entity.getType() == spawnType) {
-                currentMobsInChunk++;
-            }
-        }
+        int currentMobsInChunk = mobCounter.count(chunk, spawnType);
         if (currentMobsInChunk >= maxMobsPerChunk) {
             event.setCancelled(true);
             String translatedTypeName = getTranslatedEntityName(spawnType);
@@ -683,12 +927,7 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
     EntityType type = child.getType();
     Chunk chunk = child.getChunk();
 
-    int currentCount = 0;
-    for (Entity entity : chunk.getEntities()) {
-        if (entity.getType() == type && !entity.getUniqueId().equals(child.getUniqueId())) {
-            currentCount++;
-        }
-    }
+    int currentCount = mobCounter.count(chunk, type);
 
     if (currentCount >= maxMobsPerChunk) {
         event.setCancelled(true);
@@ -791,6 +1030,31 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
                 targetSpawner.sendMessage(getMessage("spawner-given-recipient")
                         .replace("%type%", translatedTypeName) + " x" + amount);
                 return true;
+            case "logs":
+                jsonLogger.getQuery().run(sender, args);
+                return true;
+            case "debug":
+                if (args.length >= 2 && args[1].equalsIgnoreCase("mobcounter")) {
+                    mobCounter.verify(sender);
+                    return true;
+                }
+                if (args.length >= 2 && args[1].equalsIgnoreCase("webhook")) {
+                    WebhookDispatcher dispatcher = webhookManager.getDispatcher();
+                    if (dispatcher == null) {
+                        sender.sendMessage(getMessage("debug-webhook-unavailable"));
+                        return true;
+                    }
+                    sender.sendMessage(getMessage("debug-webhook-status")
+                            .replace("%waiting%", String.valueOf(dispatcher.getQueueDepth()))
+                            .replace("%kb%", String.valueOf(dispatcher.getOutboxBytes() / 1024))
+                            .replace("%sent%", String.valueOf(dispatcher.getSent()))
+                            .replace("%dropped%", String.valueOf(dispatcher.getDropped()))
+                            .replace("%failed%", String.valueOf(dispatcher.getFailed()))
+                            .replace("%limited%", String.valueOf(dispatcher.getRateLimited())));
+                    return true;
+                }
+                sender.sendMessage(getMessage("debug-usage"));
+                return true;
             default:
                 sender.sendMessage(getMessage("wrong-subcommand"));
                 return true;
@@ -827,7 +1091,11 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
 
         List<String> completions = new ArrayList<>();
         if (args.length == 1) {
-            StringUtil.copyPartialMatches(args[0], Arrays.asList("reload", "pickaxegive", "givespawner"), completions);
+            StringUtil.copyPartialMatches(args[0], Arrays.asList("reload", "pickaxegive", "givespawner", "logs", "debug"), completions);
+        } else if (args.length >= 2 && args[0].equalsIgnoreCase("logs")) {
+            StringUtil.copyPartialMatches(args[args.length - 1], LogQuery.FILTERS, completions);
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("debug")) {
+            StringUtil.copyPartialMatches(args[1], Arrays.asList("mobcounter", "webhook"), completions);
         } else if (args.length == 2 && (args[0].equalsIgnoreCase("pickaxegive") || args[0].equalsIgnoreCase("givespawner"))) {
             StringUtil.copyPartialMatches(args[1], Bukkit.getOnlinePlayers().stream().map(Player::getName).collect(Collectors.toList()), completions);
         } else if (args.length == 3 && args[0].equalsIgnoreCase("pickaxegive")) {
@@ -842,8 +1110,8 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
     }
 
     private String getMessage(String path) {
-        String prefix = me.spawner.utils.ColorUtils.color(languageConfig.getString("prefix", "&8[&aSpawner&8] &r"));
-        String message = me.spawner.utils.ColorUtils.color(languageConfig.getString("messages." + path, "&cMessage not found: " + path));
+        String prefix = languageCache.text("prefix", "&8[&aSpawner&8] &r");
+        String message = languageCache.text("messages." + path, "&cMessage not found: " + path);
         return prefix + " " + message;
     }
 
@@ -956,45 +1224,90 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
     }
 
     private void startMobCullingTask() {
+        long minAgeNanos = cullingCheckInterval * 50_000_000L;
+        long budgetNanos = cullingTickBudgetMicros * 1_000L;
+
+        cullingWarnings.configure(cullingWarnDuration, maxMobsPerChunk, languageConfig.getStringList("mob-remove-warning"));
+        cullingWarnings.start();
+
+        if (cullingAsyncAnalysis) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            cullingAnalysisPool = Executors.newFixedThreadPool(cullingAnalysisThreads, r -> {
+                Thread thread = new Thread(r, "SpawnerSystem-Culling-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
         if (isFolia) {
-            Bukkit.getAsyncScheduler().runAtFixedRate(this, (task) -> {
-                for (World world : Bukkit.getWorlds()) {
-                    Chunk[] loadedChunks = world.getLoadedChunks(); 
-                    for (Chunk chunk : loadedChunks) {
-                        Bukkit.getRegionScheduler().execute(this, world, chunk.getX(), chunk.getZ(), () -> {
-                            if (chunk.isLoaded()) {
-                                processChunkForCulling(chunk);
-                            }
-                        });
-                    }
-                }
-            }, 1, cullingCheckInterval * 50L, java.util.concurrent.TimeUnit.MILLISECONDS); 
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(this, (task) ->
+                    dirtyCullingChunks.drain(minAgeNanos, budgetNanos, this::cullDirtyChunk), 1L, 1L);
         } else {
-            Bukkit.getScheduler().runTaskTimer(this, () -> {
-                for (World world : Bukkit.getWorlds()) {
-                    for (Chunk chunk : world.getLoadedChunks()) {
-                        processChunkForCulling(chunk);
-                    }
-                }
-            }, cullingCheckInterval, cullingCheckInterval);
+            Bukkit.getScheduler().runTaskTimer(this, () ->
+                    dirtyCullingChunks.drain(minAgeNanos, budgetNanos, this::cullDirtyChunk), 1L, 1L);
+        }
+    }
+
+    private void markChunkForCulling(long chunkKey, EntityType type) {
+        if (cullingEnabled && cullingValidMobTypes.contains(type)) {
+            dirtyCullingChunks.mark(chunkKey);
         }
     }
 
+    private void cullDirtyChunk(long chunkKey) {
+        if (!hasCullingOverflow(chunkKey)) return;
+
+        World world = ChunkKeys.world(chunkKey);
+        if (world == null) return;
+
+        int chunkX = ChunkKeys.chunkX(chunkKey);
+        int chunkZ = ChunkKeys.chunkZ(chunkKey);
+        Runnable task = () -> {
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                processChunkForCulling(world.getChunkAt(chunkX, chunkZ));
+            }
+        };
+
+        if (isFolia) {
+            Bukkit.getRegionScheduler().execute(this, world, chunkX, chunkZ, task);
+        } else {
+            task.run();
+        }
+    }
+
+    private boolean hasCullingOverflow(long chunkKey) {
+        for (EntityType type : cullingValidMobTypes) {
+            if (mobCounter.count(chunkKey, type) > maxMobsPerChunk) return true;
+        }
+        return false;
+    }
+
     private void processChunkForCulling(Chunk chunk) {
+        ExecutorService pool = cullingAnalysisPool;
+        if (pool != null) {
+            analyzeChunkAsync(chunk, pool);
+            return;
+        }
+
         Map<EntityType, List<LivingEntity>> entitiesInChunk = new HashMap<>();
         for (Entity entity : chunk.getEntities()) {
-            if (entity instanceof LivingEntity && entity.isValid() && cullingValidMobTypes.contains(entity.getType().name().toUpperCase())) {
+            if (entity instanceof LivingEntity && entity.isValid() && cullingValidMobTypes.contains(entity.getType())) {
                 entitiesInChunk.computeIfAbsent(entity.getType(), k -> new ArrayList<>()).add((LivingEntity) entity);
             }
         }
 
         entitiesInChunk.forEach((type, entities) -> {
-            if (entities.size() > maxMobsPerChunk) {
+            int total = 0;
+            for (LivingEntity entity : entities) {
+                total += mobCounter.weightOf(entity);
+            }
+            if (total > maxMobsPerChunk) {
                 entities.sort(Comparator.comparingInt(Entity::getTicksLived));
                 
-                for (int i = 0; i < entities.size() - maxMobsPerChunk; i++) {
+                for (int i = 0; i < entities.size() && total > maxMobsPerChunk; i++) {
                     LivingEntity mobToWarn = entities.get(i);
-                    if (!warnedMobs.containsKey(mobToWarn.getUniqueId())) {
+                    total -= mobCounter.weightOf(mobToWarn);
+                    if (!cullingWarnings.isWarned(mobToWarn)) {
                         warnMob(mobToWarn);
                     }
                 }
@@ -1002,88 +1315,45 @@ public void onSpawnerPlaceLog(BlockPlaceEvent event) {
         });
     }
 
-    private void warnMob(LivingEntity mob) {
-        Hologram hologram = null;
-        if (canUseHolograms && hologramsEnabledByConfig) {
-            List<String> initialWarningLines = languageConfig.getStringList("mob-remove-warning").stream()
-                    .map(line -> me.spawner.utils.ColorUtils.color(line.replace("%time%", String.valueOf(cullingWarnDuration))))
-                    .collect(Collectors.toList());
-            hologram = Hologram.createMobHologram(this, languageConfig, mob, hologramVisibleDistance, initialWarningLines, hologramSeeThrough);
-        }
+    private void analyzeChunkAsync(Chunk chunk, ExecutorService pool) {
+        CullingSnapshot snapshot = CullingSnapshot.capture(chunk, cullingValidMobTypes, mobCounter::weightOf);
+        if (snapshot.isEmpty()) return;
 
-        final Hologram finalHologram = hologram;
-        Object task;
+        World world = chunk.getWorld();
+        int chunkX = chunk.getX();
+        int chunkZ = chunk.getZ();
+        int maxPerType = maxMobsPerChunk;
 
-        Runnable runner = new Runnable() {
-            private int timeLeft = cullingWarnDuration;
-            private final Chunk initialChunk = mob.getChunk();
+        Runnable analysis = () -> {
+            int[] toWarn = CullingAnalyzer.selectToWarn(snapshot, maxPerType);
+            if (toWarn.length == 0) return;
 
-            @Override
-            public void run() {
-                if (!mob.isValid() || mob.isDead()) {
-                    cleanup(mob.getUniqueId());
-                    return;
-                }
-
-                long currentCountInChunk = 0;
-                for (Entity entity : initialChunk.getEntities()) {
-                    if (entity.getType() == mob.getType()) {
-                        currentCountInChunk++;
-                    }
-                }
-
-                if (!mob.getChunk().equals(initialChunk) || currentCountInChunk <= maxMobsPerChunk) {
-                    cleanup(mob.getUniqueId());
-                    return;
-                }
-
-                if (timeLeft <= 0) {
-                    mob.remove();
-                    cleanup(mob.getUniqueId());
-                    return;
+            Runnable apply = () -> snapshot.forEachSelected(toWarn, mob -> {
+                if (mob.isValid() && !mob.isDead() && !cullingWarnings.isWarned(mob)) {
+                    warnMob(mob);
                 }
+            });
 
-                if (finalHologram != null) {
-                    List<String> warningLines = languageConfig.getStringList("mob-remove-warning").stream()
-                            .map(line -> me.spawner.utils.ColorUtils.color(line.replace("%time%", String.valueOf(timeLeft))))
-                            .collect(Collectors.toList());
-                    finalHologram.updateMobHologramText(warningLines);
-                }
-                timeLeft--;
+            if (!isEnabled()) return;
+            if (isFolia) {
+                Bukkit.getRegionScheduler().execute(this, world, chunkX, chunkZ, apply);
+            } else {
+                Bukkit.getScheduler().runTask(this, apply);
             }
         };
 
-        if (isFolia) {
-            task = mob.getScheduler().runAtFixedRate(this, (t) -> runner.run(), null, 1, 20);
-        } else {
-            task = Bukkit.getScheduler().runTaskTimer(this, runner, 0L, 20L);
-        }
-
-        warnedMobs.put(mob.getUniqueId(), new MobCullingInfo(hologram, task));
-    }
-
-    private void cleanup(UUID mobId) {
-        MobCullingInfo info = warnedMobs.remove(mobId);
-        if (info != null) {
-            cancelTask(info.task);
-            if (info.hologram != null) {
-                info.hologram.removeHologram();
-            }
+        try {
+            pool.execute(analysis);
+        } catch (RejectedExecutionException e) {
+            // The pool was shut down by a reload since this task read it; the next culling pass covers the chunk.
         }
     }
 
-     private void cancelTask(Object task) {
-        if (task == null) return;
-        if (isFolia) {
-            try {
-                Class<?> scheduledTaskClass = Class.forName("io.papermc.paper.threadedregions.scheduler.ScheduledTask");
-                Method cancelMethod = scheduledTaskClass.getMethod("cancel");
-                cancelMethod.invoke(task);
-            } catch (Exception ignored) {}
-        } else {
-            if (task instanceof BukkitTask) {
-                ((BukkitTask) task).cancel();
-            }
+    private void warnMob(LivingEntity mob) {
+        Hologram hologram = null;
+        if (canUseHolograms && hologramsEnabledByConfig) {
+            hologram = Hologram.createMobHologram(this, mob, hologramVisibleDistance, cullingWarnings.linesFor(cullingWarnDuration), hologramSeeThrough);
         }
+        cullingWarnings.warn(mob, hologram, cullingWarnDuration);
     }
-}
\ No newline at end of file
+}
@@ -3,7 +3,12 @@ package me.spawner;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
 import net.luckperms.api.event.EventBus;
+import me.spawner.loot.DropStorage;
+import me.spawner.loot.LootProfiles;
+import me.spawner.registry.SpawnerRecord;
 import me.spawner.utils.ColorUtils;
+import me.spawner.utils.LanguageCache;
+import me.spawner.utils.MessageTemplate;
 import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.user.User;
 import net.luckperms.api.query.QueryOptions;
@@ -24,6 +29,7 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.entity.SpawnerSpawnEvent;
 import org.bukkit.inventory.Inventory;
@@ -35,15 +41,16 @@ import org.bukkit.persistence.PersistentDataType;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 public class SpawnerMenu implements Listener {
 
+    private static final String[] LORE_PLACEHOLDERS = {"status", "xp"};
+    private static final String[] STORAGE_PLACEHOLDERS = {"amount", "types"};
+    private static final int STORAGE_BUTTON_SLOT = 22;
+    private static final int STORAGE_BACK_SLOT = 49;
+    private static final String NO_PERM_LORE = ColorUtils.color("&c&lYETKİN YOK");
+
     private final Spawner plugin;
-    private final NamespacedKey AUTO_KILL_KEY;
-    private final NamespacedKey XP_COLLECT_KEY;
-    private final NamespacedKey STORED_XP_KEY;
-    private final NamespacedKey MANAGER_KEY;
     private final NamespacedKey OWNER_KEY;
     private final Random random = new Random();
     private final Map<UUID, Boolean> luckPermsCache = new ConcurrentHashMap<>();
@@ -55,10 +62,6 @@ public class SpawnerMenu implements Listener {
 
     public SpawnerMenu(Spawner plugin) {
         this.plugin = plugin;
-        this.AUTO_KILL_KEY = new NamespacedKey(plugin, "auto_kill");
-        this.XP_COLLECT_KEY = new NamespacedKey(plugin, "xp_collect");
-        this.STORED_XP_KEY = new NamespacedKey(plugin, "stored_xp");
-        this.MANAGER_KEY = new NamespacedKey(plugin, "spawner_manager");
         this.OWNER_KEY = new NamespacedKey(plugin, "spawner_owner");
 
         try {
@@ -73,16 +76,14 @@ public class SpawnerMenu implements Listener {
     }
 
     private String getGuiText(String path) {
-        if (plugin.getLanguageConfig() == null) return path;
-        String val = plugin.getLanguageConfig().getString(path, path);
-        return me.spawner.utils.ColorUtils.color(val);
+        if (plugin.getLanguageCache() == null) return path;
+        return plugin.getLanguageCache().text(path, path);
     }
 
     private String getMessage(String path) {
-        if (plugin.getLanguageConfig() == null) return path;
-        String prefix = plugin.getLanguageConfig().getString("prefix", "&8[&aSpawner&8] &r");
-        String val = plugin.getLanguageConfig().getString(path, path);
-        return me.spawner.utils.ColorUtils.color(prefix + val);
+        if (plugin.getLanguageCache() == null) return path;
+        LanguageCache cache = plugin.getLanguageCache();
+        return cache.text("prefix", "&8[&aSpawner&8] &r") + cache.text(path, path);
     }
 
     private void registerLuckPermsHook() {
@@ -134,14 +135,76 @@ public class SpawnerMenu implements Listener {
 
     private void updateMenuIcons(Inventory inv, Block block, Player player) {
         if (!(block.getState() instanceof CreatureSpawner spawner)) return;
+        SpawnerRecord record = plugin.getSpawnerStateStore().recordFor(spawner);
         
         boolean viewerHasPerm = player.isOp() || player.hasPermission("spawner.menu") || player.hasPermission("spawner.admin");
-        boolean autoKill = spawner.getPersistentDataContainer().getOrDefault(AUTO_KILL_KEY, PersistentDataType.BOOLEAN, false);
-        boolean xpCollect = spawner.getPersistentDataContainer().getOrDefault(XP_COLLECT_KEY, PersistentDataType.BOOLEAN, false);
-        int storedXp = spawner.getPersistentDataContainer().getOrDefault(STORED_XP_KEY, PersistentDataType.INTEGER, 0);
+        boolean autoKill = record.hasFlag(SpawnerRecord.AUTO_KILL);
+        boolean xpCollect = record.hasFlag(SpawnerRecord.XP_COLLECT);
+        int storedXp = record.getStoredXp();
 
         inv.setItem(12, createMenuItem(Material.DIAMOND_SWORD, "auto-slayer", autoKill, -1, viewerHasPerm));
         inv.setItem(14, createMenuItem(Material.EXPERIENCE_BOTTLE, "xp-vacuum", xpCollect, storedXp, viewerHasPerm));
+        if (plugin.isDropStorage()) {
+            inv.setItem(STORAGE_BUTTON_SLOT, createStorageButton(record.getStorage()));
+        }
+    }
+
+    private ItemStack createStorageButton(DropStorage storage) {
+        ItemStack item = new ItemStack(Material.CHEST);
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return item;
+
+        meta.setDisplayName(getGuiText("menu.items.drop-storage.name"));
+        String amount = String.valueOf(storage.getTotal());
+        String types = String.valueOf(storage.size());
+        List<MessageTemplate> loreTemplates = plugin.getLanguageCache().templates("menu.items.drop-storage.lore", STORAGE_PLACEHOLDERS);
+        List<String> lore = new ArrayList<>(loreTemplates.size());
+        for (MessageTemplate line : loreTemplates) {
+            lore.add(line.render(amount, types));
+        }
+        meta.setLore(lore);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    public void openStorageMenu(Player player, Block block) {
+        Inventory inv = Bukkit.createInventory(null, 54, getGuiText("menu.storage.title"));
+        if (block.getState() instanceof CreatureSpawner spawner) {
+            fillStorageMenu(inv, plugin.getSpawnerStateStore().recordFor(spawner).getStorage());
+        }
+        player.openInventory(inv);
+        player.setMetadata("opened_spawner_loc", new FixedMetadataValue(plugin, block.getLocation()));
+    }
+
+    private void fillStorageMenu(Inventory inv, DropStorage storage) {
+        inv.clear();
+        List<MessageTemplate> loreTemplates = plugin.getLanguageCache().templates("menu.storage.item-lore", STORAGE_PLACEHOLDERS);
+        int slot = 0;
+        for (Material material : storage.materials()) {
+            if (slot >= 45) break;
+            long count = storage.getCount(material);
+            if (count <= 0 || !material.isItem()) continue;
+
+            ItemStack icon = new ItemStack(material, (int) Math.min(count, material.getMaxStackSize()));
+            ItemMeta meta = icon.getItemMeta();
+            if (meta != null) {
+                List<String> lore = new ArrayList<>(loreTemplates.size());
+                for (MessageTemplate line : loreTemplates) {
+                    lore.add(line.render(String.valueOf(count), ""));
+                }
+                meta.setLore(lore);
+                icon.setItemMeta(meta);
+            }
+            inv.setItem(slot++, icon);
+        }
+
+        ItemStack back = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = back.getItemMeta();
+        if (backMeta != null) {
+            backMeta.setDisplayName(getGuiText("menu.storage.back"));
+            back.setItemMeta(backMeta);
+        }
+        inv.setItem(STORAGE_BACK_SLOT, back);
     }
 
     private ItemStack createMenuItem(Material material, String configKey, boolean enabled, int xpAmount, boolean hasPerm) {
@@ -157,25 +220,29 @@ public class SpawnerMenu implements Listener {
         String name = getGuiText("menu.items." + configKey + ".name");
         meta.setDisplayName(name);
 
-        List<String> rawLore;
+        LanguageCache cache = plugin.getLanguageCache();
+        List<MessageTemplate> loreTemplates;
+        boolean noPermFallback = false;
         if (hasPerm) {
-            rawLore = plugin.getLanguageConfig().getStringList("menu.items." + configKey + ".lore");
+            loreTemplates = cache.templates("menu.items." + configKey + ".lore", LORE_PLACEHOLDERS);
         } else {
-            rawLore = plugin.getLanguageConfig().getStringList("menu.items." + configKey + ".lore-no-perm");
-            if (rawLore.isEmpty()) {
-                rawLore = plugin.getLanguageConfig().getStringList("menu.items." + configKey + ".lore");
-                rawLore.add("&c&lYETKİN YOK");
+            loreTemplates = cache.templates("menu.items." + configKey + ".lore-no-perm", LORE_PLACEHOLDERS);
+            if (loreTemplates.isEmpty()) {
+                loreTemplates = cache.templates("menu.items." + configKey + ".lore", LORE_PLACEHOLDERS);
+                noPermFallback = true;
             }
         }
 
         String statusText = enabled ? getGuiText("menu.status.active") : getGuiText("menu.status.inactive");
         String xpText = (xpAmount == -1) ? "0" : String.valueOf(xpAmount);
 
-        List<String> lore = rawLore.stream()
-                .map(line -> me.spawner.utils.ColorUtils.color(line
-                        .replace("%status%", statusText)
-                        .replace("%xp%", xpText)))
-                .collect(Collectors.toList());
+        List<String> lore = new ArrayList<>(loreTemplates.size() + 1);
+        for (MessageTemplate line : loreTemplates) {
+            lore.add(line.render(statusText, xpText));
+        }
+        if (noPermFallback) {
+            lore.add(NO_PERM_LORE);
+        }
 
         meta.setLore(lore);
         item.setItemMeta(meta);
@@ -194,20 +261,21 @@ public class SpawnerMenu implements Listener {
         Block block = loc.getBlock();
         if (block.getType() != Material.SPAWNER) return;
         CreatureSpawner spawner = (CreatureSpawner) block.getState();
+        SpawnerRecord record = plugin.getSpawnerStateStore().recordFor(spawner);
 
         boolean viewerHasPerm = player.isOp() || player.hasPermission("spawner.menu") || player.hasPermission("spawner.admin");
-        boolean autoKill = spawner.getPersistentDataContainer().getOrDefault(AUTO_KILL_KEY, PersistentDataType.BOOLEAN, false);
+        boolean autoKill = record.hasFlag(SpawnerRecord.AUTO_KILL);
         boolean changed = false;
 
         if (event.getRawSlot() == 12) {
             if (viewerHasPerm) {
                 boolean nextStatus = !autoKill;
-                spawner.getPersistentDataContainer().set(AUTO_KILL_KEY, PersistentDataType.BOOLEAN, nextStatus);
+                record.setFlag(SpawnerRecord.AUTO_KILL, nextStatus);
                 if (nextStatus) {
-                    spawner.getPersistentDataContainer().set(MANAGER_KEY, PersistentDataType.STRING, player.getUniqueId().toString());
+                    record.setManager(player.getUniqueId());
                     luckPermsCache.remove(player.getUniqueId());
                 } else {
-                    spawner.getPersistentDataContainer().set(XP_COLLECT_KEY, PersistentDataType.BOOLEAN, false);
+                    record.setFlag(SpawnerRecord.XP_COLLECT, false);
                 }
                 changed = true;
                 player.playSound(player.getLocation(), nextStatus ? Sound.BLOCK_NOTE_BLOCK_PLING : Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 1f);
@@ -218,12 +286,10 @@ public class SpawnerMenu implements Listener {
             }
         } 
         else if (event.getRawSlot() == 14) {
-            int storedXp = spawner.getPersistentDataContainer().getOrDefault(STORED_XP_KEY, PersistentDataType.INTEGER, 0);
-
             if (event.isRightClick()) {
+                int storedXp = plugin.getSpawnerStateStore().takeStoredXp(record);
                 if (storedXp > 0) {
                     player.giveExp(storedXp);
-                    spawner.getPersistentDataContainer().set(STORED_XP_KEY, PersistentDataType.INTEGER, 0);
                     player.sendMessage(getMessage("menu.messages.xp-collected").replace("%xp%", String.valueOf(storedXp)));
                     player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1f, 1.5f);
                     changed = true;
@@ -234,11 +300,10 @@ public class SpawnerMenu implements Listener {
             else if (event.isLeftClick()) {
                 if (viewerHasPerm) {
                     if (autoKill) {
-                        boolean current = spawner.getPersistentDataContainer().getOrDefault(XP_COLLECT_KEY, PersistentDataType.BOOLEAN, false);
-                        boolean nextStatus = !current;
-                        spawner.getPersistentDataContainer().set(XP_COLLECT_KEY, PersistentDataType.BOOLEAN, nextStatus);
+                        boolean nextStatus = !record.hasFlag(SpawnerRecord.XP_COLLECT);
+                        record.setFlag(SpawnerRecord.XP_COLLECT, nextStatus);
                         if (nextStatus) {
-                            spawner.getPersistentDataContainer().set(MANAGER_KEY, PersistentDataType.STRING, player.getUniqueId().toString());
+                            record.setManager(player.getUniqueId());
                         }
                         changed = true;
                         player.playSound(player.getLocation(), Sound.ITEM_BOTTLE_FILL, 1f, 1f);
@@ -252,44 +317,112 @@ public class SpawnerMenu implements Listener {
                 }
             }
         }
+        else if (event.getRawSlot() == STORAGE_BUTTON_SLOT && plugin.isDropStorage()) {
+            if (record.getStorage().isEmpty()) {
+                player.sendMessage(getMessage("menu.messages.storage-empty"));
+                player.playSound(player.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 1f);
+            } else {
+                player.playSound(player.getLocation(), Sound.BLOCK_CHEST_OPEN, 1f, 1f);
+                openStorageMenu(player, block);
+            }
+        }
 
         if (changed) {
-            spawner.update();
             updateMenuIcons(event.getInventory(), block, player);
         }
     }
 
-    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    @EventHandler
+    public void onStorageClick(InventoryClickEvent event) {
+        if (!event.getView().getTitle().equals(getGuiText("menu.storage.title"))) return;
+        event.setCancelled(true);
+        Player player = (Player) event.getWhoClicked();
+        if (!player.hasMetadata("opened_spawner_loc")) return;
+
+        Location loc = (Location) player.getMetadata("opened_spawner_loc").get(0).value();
+        if (loc == null) return;
+        Block block = loc.getBlock();
+        if (block.getType() != Material.SPAWNER) return;
+
+        int slot = event.getRawSlot();
+        if (slot == STORAGE_BACK_SLOT) {
+            openSpawnerMenu(player, block);
+            return;
+        }
+        if (slot < 0 || slot >= 45) return;
+        ItemStack clicked = event.getCurrentItem();
+        if (clicked == null || clicked.getType().isAir()) return;
+
+        SpawnerRecord record = plugin.getSpawnerStateStore().recordFor((CreatureSpawner) block.getState());
+        Material material = clicked.getType();
+        int maxStack = material.getMaxStackSize();
+        long wanted = event.isShiftClick() ? Long.MAX_VALUE : maxStack;
+        long room = freeSpace(player.getInventory(), material);
+        if (room <= 0) {
+            player.sendMessage(getMessage("menu.messages.storage-inventory-full"));
+            player.playSound(player.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 1f);
+            return;
+        }
+
+        long taken = plugin.getSpawnerStateStore().takeFromStorage(record, material, Math.min(wanted, room));
+        // Written to the block right away, so the next autosave cannot store the items in both places.
+        if (taken > 0) plugin.getSpawnerStateStore().save(record);
+        while (taken > 0) {
+            int amount = (int) Math.min(maxStack, taken);
+            player.getInventory().addItem(new ItemStack(material, amount));
+            taken -= amount;
+        }
+        player.playSound(player.getLocation(), Sound.ENTITY_ITEM_PICKUP, 1f, 1f);
+        fillStorageMenu(event.getInventory(), record.getStorage());
+    }
+
+    @EventHandler
+    public void onStorageDrag(InventoryDragEvent event) {
+        if (!event.getView().getTitle().equals(getGuiText("menu.storage.title"))) return;
+        int topSize = event.getView().getTopInventory().getSize();
+        for (int slot : event.getRawSlots()) {
+            if (slot < topSize) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
+    private static long freeSpace(Inventory inventory, Material material) {
+        ItemStack plain = new ItemStack(material);
+        int maxStack = material.getMaxStackSize();
+        long room = 0;
+        for (ItemStack item : inventory.getStorageContents()) {
+            if (item == null || item.getType().isAir()) {
+                room += maxStack;
+            } else if (item.isSimilar(plain)) {
+                room += Math.max(0, maxStack - item.getAmount());
+            }
+        }
+        return room;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onSpawnerSpawn(SpawnerSpawnEvent event) {
         CreatureSpawner spawner = event.getSpawner();
-        boolean autoKill = spawner.getPersistentDataContainer().getOrDefault(AUTO_KILL_KEY, PersistentDataType.BOOLEAN, false);
+        SpawnerRecord record = plugin.getSpawnerStateStore().recordFor(spawner);
         
-        if (!autoKill) return;
+        if (!record.hasFlag(SpawnerRecord.AUTO_KILL)) return;
 
-        String managerUUIDString = spawner.getPersistentDataContainer().getOrDefault(MANAGER_KEY, PersistentDataType.STRING, null);
-        
-        if (managerUUIDString != null) {
-            try {
-                UUID managerUUID = UUID.fromString(managerUUIDString);
-                
-                if (!checkPermission(managerUUID, "spawner.menu")) {
-                    spawner.getPersistentDataContainer().set(AUTO_KILL_KEY, PersistentDataType.BOOLEAN, false);
-                    spawner.getPersistentDataContainer().set(XP_COLLECT_KEY, PersistentDataType.BOOLEAN, false);
-                    spawner.update();
-                    
-                    Player p = Bukkit.getPlayer(managerUUID);
-                    if (p != null) {
-                        p.sendMessage(getMessage("menu.messages.perms-changed"));
-                    }
-                    return;
-                }
-            } catch (Exception e) {
-                spawner.getPersistentDataContainer().set(AUTO_KILL_KEY, PersistentDataType.BOOLEAN, false);
-                spawner.update();
-                return;
+        UUID managerUUID = record.getManager();
+        if (managerUUID != null && !checkPermission(managerUUID, "spawner.menu")) {
+            record.setFlag(SpawnerRecord.AUTO_KILL, false);
+            record.setFlag(SpawnerRecord.XP_COLLECT, false);
+
+            Player p = Bukkit.getPlayer(managerUUID);
+            if (p != null) {
+                p.sendMessage(getMessage("menu.messages.perms-changed"));
             }
+            return;
         }
 
+        if (plugin.isVirtualKills() && killVirtually(event, spawner, record)) return;
+
         if (event.getEntity() instanceof LivingEntity entity) {
             Location dropLoc = spawner.getLocation().clone().add((random.nextDouble() * 2 - 1) * 1.3, 0.2, (random.nextDouble() * 2 - 1) * 1.3);
             
@@ -308,6 +441,30 @@ public class SpawnerMenu implements Listener {
         }
     }
 
+    // The mob is never added to the world; one of its learned kills is paid out instead.
+    private boolean killVirtually(SpawnerSpawnEvent event, CreatureSpawner spawner, SpawnerRecord record) {
+        LootProfiles.Outcome outcome = plugin.getLootProfiles().roll(event.getEntityType());
+        if (outcome == null) return false;
+
+        event.setCancelled(true);
+        boolean collectXp = record.hasFlag(SpawnerRecord.XP_COLLECT);
+        if (collectXp) {
+            plugin.getSpawnerStateStore().addStoredXp(record, outcome.getXp());
+        }
+        if (plugin.isDropStorage()) {
+            for (int i = 0; i < outcome.size(); i++) {
+                long left = plugin.getSpawnerStateStore().addToStorage(record, outcome.getMaterial(i), outcome.getAmount(i));
+                if (left > 0) plugin.getDropBuffer().add(record, outcome.getMaterial(i), left);
+            }
+            if (!collectXp) plugin.getDropBuffer().addXp(record, outcome.getXp());
+        } else {
+            plugin.getDropBuffer().add(record, outcome, !collectXp);
+        }
+
+        plugin.restartSpawnDelay(spawner);
+        return true;
+    }
+
     private boolean checkPermission(UUID uuid, String permission) {
         Player onlinePlayer = Bukkit.getPlayer(uuid);
         if (onlinePlayer != null) {
@@ -357,24 +514,61 @@ public class SpawnerMenu implements Listener {
         if (!entity.hasMetadata("spawner_mob")) return;
         Location spawnerLoc = (Location) entity.getMetadata("spawner_mob").get(0).value();
         if (spawnerLoc == null) return;
-        Block block = spawnerLoc.getBlock();
-        if (block.getType() != Material.SPAWNER) return;
-        CreatureSpawner spawner = (CreatureSpawner) block.getState();
+        SpawnerRecord record = plugin.getSpawnerRegistry().get(spawnerLoc);
+        if (record == null || !record.isLoaded()) {
+            Block block = spawnerLoc.getBlock();
+            if (block.getType() != Material.SPAWNER) return;
+            record = plugin.getSpawnerStateStore().recordFor((CreatureSpawner) block.getState());
+        }
 
         int finalXp = event.getDroppedExp();
         if (finalXp == 0) finalXp = calculateRealXp(entity);
+        if (plugin.isVirtualKills()) {
+            plugin.getLootProfiles().observe(entity.getType(), event.getDrops(), finalXp);
+        }
+        if (plugin.isDropStorage()) {
+            storeDrops(record, event.getDrops());
+        }
+        if (plugin.isMergeDrops()) {
+            bufferDrops(record, event.getDrops());
+        }
 
-        boolean xpStoreMode = spawner.getPersistentDataContainer().getOrDefault(XP_COLLECT_KEY, PersistentDataType.BOOLEAN, false);
-        if (xpStoreMode) {
-            int currentStored = spawner.getPersistentDataContainer().getOrDefault(STORED_XP_KEY, PersistentDataType.INTEGER, 0);
-            spawner.getPersistentDataContainer().set(STORED_XP_KEY, PersistentDataType.INTEGER, currentStored + finalXp);
-            spawner.update();
+        if (record.hasFlag(SpawnerRecord.XP_COLLECT)) {
+            plugin.getSpawnerStateStore().addStoredXp(record, finalXp);
+            event.setDroppedExp(0);
+        } else if (plugin.isMergeDrops()) {
+            plugin.getDropBuffer().addXp(record, finalXp);
             event.setDroppedExp(0);
         } else {
             event.setDroppedExp(finalXp);
         }
     }
 
+    // Hands the drops to the spawner's DropBuffer, which releases them as merged stacks with the next flush.
+    private void bufferDrops(SpawnerRecord record, List<ItemStack> drops) {
+        Iterator<ItemStack> iterator = drops.iterator();
+        while (iterator.hasNext()) {
+            ItemStack drop = iterator.next();
+            if (!DropStorage.canStore(drop)) continue;
+            plugin.getDropBuffer().add(record, drop.getType(), drop.getAmount());
+            iterator.remove();
+        }
+    }
+
+    private void storeDrops(SpawnerRecord record, List<ItemStack> drops) {
+        Iterator<ItemStack> iterator = drops.iterator();
+        while (iterator.hasNext()) {
+            ItemStack drop = iterator.next();
+            if (!DropStorage.canStore(drop)) continue;
+            long left = plugin.getSpawnerStateStore().addToStorage(record, drop.getType(), drop.getAmount());
+            if (left <= 0) {
+                iterator.remove();
+            } else {
+                drop.setAmount((int) left);
+            }
+        }
+    }
+
     private int calculateRealXp(LivingEntity entity) {
         if (!checkedForPaper) {
             try { 
@@ -0,0 +1,56 @@
+package me.spawner.culling;
+
+import java.util.Arrays;
+
+public final class CullingAnalyzer {
+
+    private static final int INDEX_BITS = 17;
+    private static final int TICKS_BITS = 31;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final int MAX_ENTRIES = 1 << INDEX_BITS;
+
+    private CullingAnalyzer() {
+    }
+
+    // Same selection as the synchronous path: per type, the youngest mobs above the limit.
+    // Stacked mobs are weighed by their stack size.
+    public static int[] selectToWarn(CullingSnapshot snapshot, int maxPerType) {
+        int size = Math.min(snapshot.size, MAX_ENTRIES);
+        long totalWeight = 0;
+        for (int i = 0; i < size; i++) {
+            totalWeight += snapshot.weights[i];
+        }
+        if (totalWeight <= maxPerType) return new int[0];
+
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) snapshot.typeOrdinals[i] << (TICKS_BITS + INDEX_BITS))
+                    | ((long) snapshot.ticksLived[i] << INDEX_BITS)
+                    | i;
+        }
+        Arrays.sort(keys);
+
+        int[] selected = new int[size];
+        int selectedCount = 0;
+        int runStart = 0;
+        while (runStart < size) {
+            int type = snapshot.typeOrdinals[(int) (keys[runStart] & INDEX_MASK)];
+            int runEnd = runStart + 1;
+            while (runEnd < size && snapshot.typeOrdinals[(int) (keys[runEnd] & INDEX_MASK)] == type) {
+                runEnd++;
+            }
+
+            long runWeight = 0;
+            for (int i = runStart; i < runEnd; i++) {
+                runWeight += snapshot.weights[(int) (keys[i] & INDEX_MASK)];
+            }
+            for (int i = runStart; i < runEnd && runWeight > maxPerType; i++) {
+                int index = (int) (keys[i] & INDEX_MASK);
+                selected[selectedCount++] = snapshot.entityIds[index];
+                runWeight -= snapshot.weights[index];
+            }
+            runStart = runEnd;
+        }
+        return Arrays.copyOf(selected, selectedCount);
+    }
+}
@@ -0,0 +1,68 @@
+package me.spawner.culling;
+
+import me.spawner.registry.ChunkMobCounter;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public final class CullingSnapshot {
+
+    final int[] entityIds;
+    final int[] typeOrdinals;
+    final int[] ticksLived;
+    final int[] weights;
+    final int size;
+
+    // Only touched by the thread that owns the chunk (capture and apply).
+    private final LivingEntity[] handles;
+
+    private CullingSnapshot(int[] entityIds, int[] typeOrdinals, int[] ticksLived, int[] weights, LivingEntity[] handles, int size) {
+        this.entityIds = entityIds;
+        this.typeOrdinals = typeOrdinals;
+        this.ticksLived = ticksLived;
+        this.weights = weights;
+        this.handles = handles;
+        this.size = size;
+    }
+
+    public static CullingSnapshot capture(Chunk chunk, Set<EntityType> validTypes, ChunkMobCounter.Weigher weigher) {
+        Entity[] entities = chunk.getEntities();
+        int[] ids = new int[entities.length];
+        int[] types = new int[entities.length];
+        int[] ticks = new int[entities.length];
+        int[] weights = new int[entities.length];
+        LivingEntity[] handles = new LivingEntity[entities.length];
+        int size = 0;
+
+        for (Entity entity : entities) {
+            if (entity instanceof LivingEntity living && entity.isValid() && validTypes.contains(entity.getType())) {
+                ids[size] = entity.getEntityId();
+                types[size] = entity.getType().ordinal();
+                ticks[size] = entity.getTicksLived();
+                weights[size] = weigher.weightOf(entity);
+                handles[size] = living;
+                size++;
+            }
+        }
+        return new CullingSnapshot(ids, types, ticks, weights, handles, size);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEachSelected(int[] selectedIds, Consumer<LivingEntity> action) {
+        int[] sorted = selectedIds.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < size; i++) {
+            if (Arrays.binarySearch(sorted, entityIds[i]) >= 0) {
+                action.accept(handles[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package me.spawner.culling;
+
+import me.spawner.Hologram;
+import me.spawner.Spawner;
+import me.spawner.registry.ChunkKeys;
+import me.spawner.utils.IntLongMap;
+import me.spawner.utils.MessageTemplate;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class CullingWarnings {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final long NOT_WARNED = -1L;
+
+    private final Spawner plugin;
+    private final IntLongMap deadlines = new IntLongMap(256, NOT_WARNED);
+    private final Map<Long, List<Warning>> byChunk = new HashMap<>();
+    private final List<List<Warning>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+    private long currentSecond;
+    private int hologramWarnings;
+    private int maxMobsPerChunk;
+    private List<List<String>> countdownLines = Collections.emptyList();
+
+    public CullingWarnings(Spawner plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    public synchronized void configure(int warnDurationSeconds, int maxMobsPerChunk, List<String> rawLines) {
+        this.maxMobsPerChunk = maxMobsPerChunk;
+
+        List<MessageTemplate> templates = MessageTemplate.compileAll(rawLines, true, "time");
+        List<List<String>> lines = new ArrayList<>(warnDurationSeconds + 1);
+        for (int seconds = 0; seconds <= warnDurationSeconds; seconds++) {
+            String time = String.valueOf(seconds);
+            List<String> rendered = new ArrayList<>(templates.size());
+            for (MessageTemplate template : templates) {
+                rendered.add(template.render(time));
+            }
+            lines.add(rendered);
+        }
+        this.countdownLines = lines;
+    }
+
+    public void start() {
+        if (plugin.isFolia()) {
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (t) -> advance(), 20L, 20L);
+        } else {
+            Bukkit.getScheduler().runTaskTimer(plugin, this::advance, 20L, 20L);
+        }
+    }
+
+    public List<String> linesFor(long secondsLeft) {
+        List<List<String>> lines = countdownLines;
+        if (lines.isEmpty()) return Collections.emptyList();
+        int index = (int) Math.max(0, Math.min(secondsLeft, lines.size() - 1));
+        return lines.get(index);
+    }
+
+    public synchronized boolean isWarned(Entity mob) {
+        return deadlines.containsKey(mob.getEntityId());
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    public synchronized void warn(LivingEntity mob, Hologram hologram, int durationSeconds) {
+        if (deadlines.containsKey(mob.getEntityId())) return;
+
+        Warning warning = new Warning(mob, ChunkKeys.of(mob.getLocation()), currentSecond + durationSeconds, hologram);
+        deadlines.put(warning.entityId, warning.deadline);
+        wheel.get((int) (warning.deadline & WHEEL_MASK)).add(warning);
+        byChunk.computeIfAbsent(warning.chunkKey, k -> new ArrayList<>()).add(warning);
+        if (hologram != null) hologramWarnings++;
+    }
+
+    public void clear() {
+        List<Warning> all = new ArrayList<>();
+        synchronized (this) {
+            byChunk.values().forEach(all::addAll);
+            byChunk.clear();
+            wheel.forEach(List::clear);
+            deadlines.clear();
+            hologramWarnings = 0;
+            all.forEach(warning -> warning.done = true);
+        }
+        for (Warning warning : all) {
+            if (warning.hologram != null) warning.hologram.removeHologram();
+        }
+    }
+
+    private void advance() {
+        Map<Long, List<Warning>> batches = new HashMap<>();
+        long now;
+
+        synchronized (this) {
+            now = ++currentSecond;
+            if (deadlines.isEmpty()) return;
+
+            if (hologramWarnings > 0) {
+                // Countdown text changes every second, so every chunk with a warning is visited.
+                byChunk.forEach((key, warnings) -> batches.put(key, new ArrayList<>(warnings)));
+            }
+
+            Iterator<Warning> due = wheel.get((int) (now & WHEEL_MASK)).iterator();
+            while (due.hasNext()) {
+                Warning warning = due.next();
+                if (warning.done) {
+                    due.remove();
+                } else if (warning.deadline <= now) {
+                    due.remove();
+                    if (hologramWarnings == 0) {
+                        batches.computeIfAbsent(warning.chunkKey, k -> new ArrayList<>()).add(warning);
+                    }
+                }
+            }
+        }
+
+        final long tickSecond = now;
+        batches.forEach((chunkKey, warnings) -> {
+            World world = ChunkKeys.world(chunkKey);
+            if (world == null) {
+                warnings.forEach(this::finish);
+                return;
+            }
+
+            Runnable task = () -> processBatch(warnings, tickSecond);
+            if (plugin.isFolia()) {
+                Bukkit.getRegionScheduler().execute(plugin, world, ChunkKeys.chunkX(chunkKey), ChunkKeys.chunkZ(chunkKey), task);
+            } else {
+                task.run();
+            }
+        });
+    }
+
+    private void processBatch(List<Warning> warnings, long now) {
+        for (Warning warning : warnings) {
+            if (warning.done) continue;
+
+            LivingEntity mob = warning.mob;
+            if (!mob.isValid() || mob.isDead()
+                    || (plugin.isFolia() && !Bukkit.isOwnedByCurrentRegion(mob))
+                    || ChunkKeys.of(mob.getLocation()) != warning.chunkKey
+                    || plugin.getMobCounter().count(warning.chunkKey, mob.getType()) <= maxMobsPerChunk) {
+                finish(warning);
+                continue;
+            }
+
+            long secondsLeft = warning.deadline - now;
+            if (secondsLeft <= 0) {
+                mob.remove();
+                finish(warning);
+                continue;
+            }
+
+            if (warning.hologram != null) {
+                warning.hologram.updateMobHologramText(linesFor(secondsLeft));
+            }
+        }
+    }
+
+    private void finish(Warning warning) {
+        synchronized (this) {
+            if (warning.done) return;
+            warning.done = true;
+
+            deadlines.remove(warning.entityId);
+            List<Warning> group = byChunk.get(warning.chunkKey);
+            if (group != null) {
+                group.remove(warning);
+                if (group.isEmpty()) byChunk.remove(warning.chunkKey);
+            }
+            if (warning.hologram != null) hologramWarnings--;
+        }
+
+        if (warning.hologram != null) {
+            warning.hologram.removeHologram();
+        }
+    }
+
+    private static final class Warning {
+        final LivingEntity mob;
+        final int entityId;
+        final long chunkKey;
+        final long deadline;
+        final Hologram hologram;
+        volatile boolean done;
+
+        Warning(LivingEntity mob, long chunkKey, long deadline, Hologram hologram) {
+            this.mob = mob;
+            this.entityId = mob.getEntityId();
+            this.chunkKey = chunkKey;
+            this.deadline = deadline;
+            this.hologram = hologram;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package me.spawner.culling;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongConsumer;
+
+public class DirtyChunkQueue {
+
+    private final Map<Long, Long> dirtySince = new ConcurrentHashMap<>();
+    private final Queue<Long> order = new ConcurrentLinkedQueue<>();
+
+    public void mark(long chunkKey) {
+        if (dirtySince.putIfAbsent(chunkKey, System.nanoTime()) == null) {
+            order.add(chunkKey);
+        }
+    }
+
+    public int drain(long minAgeNanos, long budgetNanos, LongConsumer consumer) {
+        long start = System.nanoTime();
+        int processed = 0;
+
+        while (true) {
+            Long key = order.peek();
+            if (key == null) break;
+
+            Long since = dirtySince.get(key);
+            if (since != null && start - since < minAgeNanos) break;
+
+            order.poll();
+            dirtySince.remove(key);
+            consumer.accept(key);
+            processed++;
+
+            if (System.nanoTime() - start >= budgetNanos) break;
+        }
+        return processed;
+    }
+
+    public int size() {
+        return dirtySince.size();
+    }
+
+    public void clear() {
+        order.clear();
+        dirtySince.clear();
+    }
+}
@@ -1,21 +1,27 @@
 package me.spawner.discord;
 
-import javax.net.ssl.HttpsURLConnection;
-import java.io.OutputStream;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
 public class DiscordWebhook {
 
+    private static final ThreadLocal<JsonBuffer> BUFFER = ThreadLocal.withInitial(() -> new JsonBuffer(8 * 1024));
+
     private final String url;
+    private final WebhookTransport transport;
     private String content;
     private String username;
     private String avatarUrl;
     private final List<EmbedObject> embeds = new ArrayList<>();
+    private final List<byte[]> rawEmbeds = new ArrayList<>();
 
     public DiscordWebhook(String url) {
+        this(url, WebhookTransport.shared());
+    }
+
+    public DiscordWebhook(String url, WebhookTransport transport) {
         this.url = url;
+        this.transport = transport;
     }
 
     public void setContent(String content) { this.content = content; }
@@ -23,68 +29,71 @@ public class DiscordWebhook {
     public void setAvatarUrl(String avatarUrl) { this.avatarUrl = avatarUrl; }
     public void addEmbed(EmbedObject embed) { this.embeds.add(embed); }
 
-    public void execute() throws Exception {
-        if (this.content == null && this.embeds.isEmpty()) {
+    public void addRawEmbed(byte[] json) { this.rawEmbeds.add(json); }
+
+    public Response execute() throws Exception {
+        if (this.content == null && this.embeds.isEmpty() && this.rawEmbeds.isEmpty()) {
             throw new IllegalArgumentException("Set content or add at least one EmbedObject");
         }
 
-        StringBuilder json = new StringBuilder();
-        json.append("{");
-
-        if (this.content != null) json.append("\"content\":\"").append(quote(this.content)).append("\",");
-        if (this.username != null) json.append("\"username\":\"").append(quote(this.username)).append("\",");
-        if (this.avatarUrl != null) json.append("\"avatar_url\":\"").append(quote(this.avatarUrl)).append("\",");
+        JsonBuffer json = BUFFER.get().reset();
+        json.raw('{');
+        if (this.content != null) json.comma().name("content").string(this.content);
+        if (this.username != null) json.comma().name("username").string(this.username);
+        if (this.avatarUrl != null) json.comma().name("avatar_url").string(this.avatarUrl);
 
-        if (!this.embeds.isEmpty()) {
-            json.append("\"embeds\":[");
+        if (!this.embeds.isEmpty() || !this.rawEmbeds.isEmpty()) {
+            json.comma().name("embeds").raw('[');
             for (EmbedObject embed : this.embeds) {
-                json.append("{");
-                if (embed.getTitle() != null) json.append("\"title\":\"").append(quote(embed.getTitle())).append("\",");
-                if (embed.getDescription() != null) json.append("\"description\":\"").append(quote(embed.getDescription())).append("\",");
-                if (embed.getColor() != null) json.append("\"color\":").append(embed.getColor()).append(",");
-                if (embed.getThumbnail() != null) json.append("\"thumbnail\":{\"url\":\"").append(quote(embed.getThumbnail())).append("\"},");
-                if (embed.getFooter() != null) json.append("\"footer\":{\"text\":\"").append(quote(embed.getFooter())).append("\"},");
-
-                if (!embed.getFields().isEmpty()) {
-                    json.append("\"fields\":[");
-                    for (EmbedObject.Field field : embed.getFields()) {
-                        json.append("{")
-                            .append("\"name\":\"").append(quote(field.getName())).append("\",")
-                            .append("\"value\":\"").append(quote(field.getValue())).append("\",")
-                            .append("\"inline\":").append(field.isInline())
-                            .append("},");
-                    }
-                    json.setLength(json.length() - 1);
-                    json.append("]");
-                } else {
-                    if (json.charAt(json.length() - 1) == ',') json.setLength(json.length() - 1);
-                }
-                json.append("},");
+                embed.writeTo(json.comma());
             }
-            json.setLength(json.length() - 1);
-            json.append("]");
-        } else {
-            if (json.charAt(json.length() - 1) == ',') json.setLength(json.length() - 1);
-        }
-        json.append("}");
-
-        URL url = new URL(this.url);
-        HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-        connection.addRequestProperty("Content-Type", "application/json");
-        connection.addRequestProperty("User-Agent", "Java-DiscordWebhook");
-        connection.setDoOutput(true);
-        connection.setRequestMethod("POST");
-
-        try (OutputStream stream = connection.getOutputStream()) {
-            stream.write(json.toString().getBytes("UTF-8"));
-            stream.flush();
+            for (byte[] raw : this.rawEmbeds) {
+                json.comma().raw(raw);
+            }
+            json.raw(']');
         }
-        connection.getInputStream().close();
-        connection.disconnect();
+        json.raw('}');
+
+        return transport.post(this.url, json.array(), json.size());
     }
 
-    private String quote(String string) {
-        return string.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    public static class Response {
+        private final int status;
+        private final long retryAfterMillis;
+        private final int remaining;
+        private final long resetAfterMillis;
+
+        public Response(int status, String retryAfter, String remaining, String resetAfter) {
+            this.status = status;
+            this.retryAfterMillis = parseSeconds(retryAfter);
+            this.remaining = parseInt(remaining);
+            this.resetAfterMillis = parseSeconds(resetAfter);
+        }
+
+        public int getStatus() { return status; }
+        public boolean isSuccess() { return status >= 200 && status < 300; }
+        public boolean isRateLimited() { return status == 429; }
+        public long getRetryAfterMillis() { return retryAfterMillis; }
+        public int getRemaining() { return remaining; }
+        public long getResetAfterMillis() { return resetAfterMillis; }
+
+        private static long parseSeconds(String value) {
+            if (value == null) return -1;
+            try {
+                return (long) Math.ceil(Double.parseDouble(value.trim()) * 1000.0);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private static int parseInt(String value) {
+            if (value == null) return -1;
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
     }
 
     public static class EmbedObject {
@@ -102,6 +111,32 @@ public class DiscordWebhook {
         public String getFooter() { return footer; }
         public List<Field> getFields() { return fields; }
 
+        public byte[] toJson() {
+            return writeTo(BUFFER.get().reset()).toByteArray();
+        }
+
+        public JsonBuffer writeTo(JsonBuffer json) {
+            json.raw('{');
+            if (title != null) json.comma().name("title").string(title);
+            if (description != null) json.comma().name("description").string(description);
+            if (color != null) json.comma().name("color").number(color);
+            if (thumbnail != null) json.comma().name("thumbnail").raw('{').name("url").string(thumbnail).raw('}');
+            if (footer != null) json.comma().name("footer").raw('{').name("text").string(footer).raw('}');
+
+            if (!fields.isEmpty()) {
+                json.comma().name("fields").raw('[');
+                for (Field field : fields) {
+                    json.comma().raw('{')
+                        .name("name").string(field.getName()).raw(',')
+                        .name("value").string(field.getValue()).raw(',')
+                        .name("inline").bool(field.isInline())
+                        .raw('}');
+                }
+                json.raw(']');
+            }
+            return json.raw('}');
+        }
+
         public EmbedObject setTitle(String title) { this.title = title; return this; }
         public EmbedObject setDescription(String description) { this.description = description; return this; }
         public EmbedObject setColor(Integer color) { this.color = color; return this; }
@@ -0,0 +1,141 @@
+package me.spawner.discord;
+
+import java.util.Arrays;
+
+// Growable UTF-8 byte buffer that JSON is written into directly; it is reset and reused instead of building Strings.
+public class JsonBuffer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private byte[] bytes;
+    private int size;
+
+    public JsonBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(64, initialCapacity)];
+    }
+
+    public JsonBuffer reset() {
+        size = 0;
+        return this;
+    }
+
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    public JsonBuffer raw(char c) {
+        ensure(1);
+        bytes[size++] = (byte) c;
+        return this;
+    }
+
+    public JsonBuffer raw(String ascii) {
+        ensure(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            bytes[size++] = (byte) ascii.charAt(i);
+        }
+        return this;
+    }
+
+    public JsonBuffer raw(byte[] json) {
+        ensure(json.length);
+        System.arraycopy(json, 0, bytes, size, json.length);
+        size += json.length;
+        return this;
+    }
+
+    public JsonBuffer number(long value) {
+        return raw(Long.toString(value));
+    }
+
+    public JsonBuffer bool(boolean value) {
+        return raw(value ? "true" : "false");
+    }
+
+    public JsonBuffer name(String name) {
+        return string(name).raw(':');
+    }
+
+    public JsonBuffer comma() {
+        if (size > 0 && bytes[size - 1] != '{' && bytes[size - 1] != '[') raw(',');
+        return this;
+    }
+
+    // Writes a quoted, escaped JSON string, encoding to UTF-8 on the way.
+    public JsonBuffer string(String value) {
+        ensure(value.length() + 2);
+        bytes[size++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                ensure(2);
+                bytes[size++] = '\\';
+                bytes[size++] = (byte) c;
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x80) {
+                ensure(1);
+                bytes[size++] = (byte) c;
+            } else if (c < 0x800) {
+                ensure(2);
+                bytes[size++] = (byte) (0xC0 | (c >> 6));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensure(4);
+                bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                ensure(3);
+                bytes[size++] = (byte) 0xEF;
+                bytes[size++] = (byte) 0xBF;
+                bytes[size++] = (byte) 0xBD;
+            } else {
+                ensure(3);
+                bytes[size++] = (byte) (0xE0 | (c >> 12));
+                bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        ensure(1);
+        bytes[size++] = '"';
+        return this;
+    }
+
+    private void escapeControl(char c) {
+        ensure(6);
+        bytes[size++] = '\\';
+        switch (c) {
+            case '\n':
+                bytes[size++] = 'n';
+                return;
+            case '\r':
+                bytes[size++] = 'r';
+                return;
+            case '\t':
+                bytes[size++] = 't';
+                return;
+            default:
+                bytes[size++] = 'u';
+                bytes[size++] = '0';
+                bytes[size++] = '0';
+                bytes[size++] = HEX[c >> 4];
+                bytes[size++] = HEX[c & 0xF];
+        }
+    }
+
+    private void ensure(int extra) {
+        if (size + extra <= bytes.length) return;
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+    }
+}
@@ -0,0 +1,207 @@
+package me.spawner.discord;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WebhookDispatcher {
+
+    private static final int MAX_EMBEDS_PER_MESSAGE = 10;
+
+    private final JavaPlugin plugin;
+    private final WebhookOutbox outbox;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private boolean started;
+
+    private volatile String url;
+    private volatile String username;
+    private volatile long flushWindowMillis;
+    private volatile double tokensPerMilli;
+    private volatile double burst;
+    private volatile long maxBackoffMillis;
+
+    private double tokens;
+    private long lastRefill = System.currentTimeMillis();
+    private long blockedUntil;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public WebhookDispatcher(JavaPlugin plugin, WebhookOutbox outbox) {
+        this.plugin = plugin;
+        this.outbox = outbox;
+        this.worker = new Thread(this::run, "SpawnerSystem-Webhook");
+        this.worker.setDaemon(true);
+    }
+
+    // Started once a valid webhook is configured, so entries left from an earlier run are replayed only then.
+    public synchronized void start() {
+        if (started || !running) return;
+        started = true;
+        worker.start();
+    }
+
+    public void configure(String url, String username, long flushWindowMillis, int requestsPerMinute, int burst, long maxBackoffMillis) {
+        this.url = url;
+        this.username = username;
+        this.flushWindowMillis = Math.max(0, flushWindowMillis);
+        this.tokensPerMilli = Math.max(1, requestsPerMinute) / 60000.0;
+        this.burst = Math.max(1, burst);
+        this.maxBackoffMillis = Math.max(1000, maxBackoffMillis);
+    }
+
+    public boolean enqueue(DiscordWebhook.EmbedObject embed) {
+        if (!running) return false;
+        return outbox.append(embed.toJson());
+    }
+
+    public int getQueueDepth() {
+        return outbox.getPending();
+    }
+
+    public long getOutboxBytes() {
+        return outbox.getSizeBytes();
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getDropped() {
+        return outbox.getDropped();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        outbox.close();
+
+        int waiting = outbox.getPending();
+        if (waiting > 0) {
+            plugin.getLogger().info(waiting + " webhook embeds are kept in the outbox and will be sent after the next start.");
+        }
+    }
+
+    private void run() {
+        tokens = burst;
+        int failures = 0;
+        while (running) {
+            try {
+                outbox.awaitAny();
+
+                // Keep collecting until the message is full or the window since the first embed has passed.
+                if (flushWindowMillis > 0) {
+                    outbox.await(MAX_EMBEDS_PER_MESSAGE, flushWindowMillis);
+                }
+
+                WebhookOutbox.Batch batch;
+                try {
+                    batch = outbox.peek(MAX_EMBEDS_PER_MESSAGE);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Webhook outbox could not be read: " + e.getMessage());
+                    backoff(++failures);
+                    continue;
+                }
+                if (batch.isEmpty()) continue;
+
+                if (deliver(batch.getEntries())) {
+                    outbox.ack(batch);
+                    failures = 0;
+                } else {
+                    backoff(++failures);
+                }
+            } catch (InterruptedException e) {
+                if (!running) break;
+            }
+        }
+    }
+
+    // Returns true once the batch is finished with, either sent or rejected for good; false means retry later.
+    private boolean deliver(List<byte[]> batch) throws InterruptedException {
+        while (running) {
+            acquireToken();
+
+            DiscordWebhook.Response response;
+            try {
+                DiscordWebhook webhook = new DiscordWebhook(url, WebhookTransport.shared());
+                webhook.setUsername(username);
+                for (byte[] embed : batch) {
+                    webhook.addRawEmbed(embed);
+                }
+                response = webhook.execute();
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                plugin.getLogger().warning("Webhook could not be sent, it will be retried: " + e.getMessage());
+                return false;
+            }
+
+            applyRateLimitHeaders(response);
+            if (response.isSuccess()) {
+                sent.addAndGet(batch.size());
+                return true;
+            }
+            if (response.isRateLimited()) {
+                rateLimited.incrementAndGet();
+                long retryAfter = response.getRetryAfterMillis() > 0 ? response.getRetryAfterMillis() : 1000L;
+                blockedUntil = Math.max(blockedUntil, System.currentTimeMillis() + retryAfter);
+                continue;
+            }
+            if (response.getStatus() < 500) {
+                // A request Discord refuses will never succeed, so it is dropped instead of blocking the outbox.
+                plugin.getLogger().warning("Webhook was rejected by Discord (HTTP " + response.getStatus() + ").");
+                failed.addAndGet(batch.size());
+                return true;
+            }
+            return false;
+        }
+        return false;
+    }
+
+    private void applyRateLimitHeaders(DiscordWebhook.Response response) {
+        if (response.getRemaining() == 0 && response.getResetAfterMillis() > 0) {
+            blockedUntil = Math.max(blockedUntil, System.currentTimeMillis() + response.getResetAfterMillis());
+        }
+    }
+
+    private void acquireToken() throws InterruptedException {
+        while (true) {
+            long now = System.currentTimeMillis();
+            if (now < blockedUntil) {
+                Thread.sleep(blockedUntil - now);
+                continue;
+            }
+
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerMilli);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return;
+            }
+            Thread.sleep((long) Math.ceil((1 - tokens) / tokensPerMilli));
+        }
+    }
+
+    private void backoff(int failures) throws InterruptedException {
+        long delay = 500L << Math.min(failures, 16);
+        Thread.sleep(Math.min(maxBackoffMillis, delay));
+    }
+}
@@ -1,6 +1,8 @@
 package me.spawner.discord;
 
 import me.spawner.Spawner;
+import me.spawner.utils.MessageTemplate;
+import me.spawner.utils.PlatformResolver;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
@@ -13,26 +15,46 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
 public class WebhookManager {
 
+    private static final String[] PLACEHOLDERS = {
+            "player", "uuid", "x", "y", "z", "world", "type", "item", "item_name", "ping", "tps", "client", "gamemode"
+    };
+    private static final DateTimeFormatter FOOTER_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
     private final JavaPlugin plugin;
     private FileConfiguration config;
     private boolean enabled;
     private String webhookUrl;
-    private String avatarApi;
     private String serverName;
+    private WebhookDispatcher dispatcher;
+    private volatile Templates templates = new Templates(MessageTemplate.compile("", false, PLACEHOLDERS), Collections.emptyMap());
 
     public WebhookManager(JavaPlugin plugin) {
         this.plugin = plugin;
         loadConfig();
     }
 
+    public WebhookDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public void close() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
     public void loadConfig() {
         File file = new File(plugin.getDataFolder(), "discord.yml");
         
@@ -44,8 +66,35 @@ public class WebhookManager {
         
         enabled = config.getBoolean("webhook.enabled", false);
         webhookUrl = config.getString("webhook.url", "");
-        avatarApi = config.getString("webhook.avatar-api", "https://mc-heads.net/avatar/%uuid%/128");
         serverName = config.getString("webhook.server-name", "SpawnerSystem");
+        templates = compileTemplates(config);
+
+        WebhookTransport.configure(config.getLong("dispatcher.connect-timeout-millis", 5000),
+                config.getLong("dispatcher.request-timeout-millis", 10000));
+
+        if (dispatcher == null) {
+            try {
+                WebhookOutbox outbox = new WebhookOutbox(new File(plugin.getDataFolder(), "outbox"),
+                        config.getLong("dispatcher.outbox.max-size-mb", 16) * 1024L * 1024L,
+                        config.getString("dispatcher.outbox.overflow", "drop-newest").equalsIgnoreCase("drop-oldest"));
+                dispatcher = new WebhookDispatcher(plugin, outbox);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Webhook outbox could not be opened, webhooks are disabled: " + e.getMessage());
+                return;
+            }
+        }
+        dispatcher.configure(webhookUrl, serverName,
+                config.getLong("dispatcher.flush-window-millis", 2000),
+                config.getInt("dispatcher.requests-per-minute", 30),
+                config.getInt("dispatcher.burst", 5),
+                config.getLong("dispatcher.outbox.max-backoff-seconds", 300) * 1000L);
+        if (isConfigured()) {
+            dispatcher.start();
+        }
+    }
+
+    private boolean isConfigured() {
+        return enabled && webhookUrl != null && !webhookUrl.isEmpty() && !webhookUrl.contains("WEBHOOK_URL");
     }
 
     public void sendPlaceWebhook(Player player, Location loc, String spawnerType) {
@@ -57,28 +106,16 @@ public class WebhookManager {
     }
 
     private void sendWebhook(String eventType, Player player, Location loc, String spawnerType, ItemStack itemUsed) {
-        if (!enabled || webhookUrl == null || webhookUrl.isEmpty() || webhookUrl.contains("WEBHOOK_URL")) {
+        if (!isConfigured() || dispatcher == null) {
             return;
         }
 
-        ConfigurationSection section = config.getConfigurationSection("events." + eventType);
-        if (section == null || !section.getBoolean("enabled", false)) {
+        Templates current = templates;
+        EventTemplate event = current.events.get(eventType);
+        if (event == null) {
             return;
         }
 
-        final String pName = player.getName();
-        final String pUuid = player.getUniqueId().toString();
-        final String pPing = String.valueOf(player.getPing());
-        final String pTps = String.format(Locale.US, "%.2f", Bukkit.getServer().getTPS()[0]);
-        final String pClient = getClientType(player);
-        final String pWorld = loc.getWorld().getName();
-        final String pX = String.valueOf(loc.getBlockX());
-        final String pY = String.valueOf(loc.getBlockY());
-        final String pZ = String.valueOf(loc.getBlockZ());
-        final String pGm = player.getGameMode().name();
-        
-        final String sType = getTranslatedType(spawnerType);
-
         String itemType = "null";
         String itemName = "null";
 
@@ -90,49 +127,71 @@ public class WebhookManager {
                 itemName = itemType;
             }
         }
-        
-        final String finalIType = itemType;
-        final String finalIName = itemName;
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                DiscordWebhook webhook = new DiscordWebhook(webhookUrl);
-                webhook.setUsername(serverName);
-
-                String titleText = section.getString("title", "");
-                String descText = section.getString("description", "");
-                
-                String title = replacePlaceholders(titleText, pName, pUuid, pPing, pTps, pClient, pWorld, pX, pY, pZ, pGm, sType, finalIType, finalIName);
-                String desc = replacePlaceholders(descText, pName, pUuid, pPing, pTps, pClient, pWorld, pX, pY, pZ, pGm, sType, finalIType, finalIName);
-                
-                DiscordWebhook.EmbedObject embed = new DiscordWebhook.EmbedObject()
-                        .setTitle(title)
-                        .setDescription(desc)
-                        .setColor(section.getInt("color", 0))
-                        .setThumbnail(avatarApi.replace("%uuid%", pUuid).replace("%player%", pName))
-                        .setFooter("Tarih: " + new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date()));
-
-                if (section.contains("fields")) {
-                    for (Map<?, ?> field : section.getMapList("fields")) {
-                        String name = replacePlaceholders(String.valueOf(field.get("name")), pName, pUuid, pPing, pTps, pClient, pWorld, pX, pY, pZ, pGm, sType, finalIType, finalIName);
-                        String value = replacePlaceholders(String.valueOf(field.get("value")), pName, pUuid, pPing, pTps, pClient, pWorld, pX, pY, pZ, pGm, sType, finalIType, finalIName);
-                        
-                        boolean inline = true;
-                        if (field.get("inline") instanceof Boolean) {
-                            inline = (Boolean) field.get("inline");
-                        }
-                        
-                        embed.addField(name, value, inline);
-                    }
-                }
+        // Same order as PLACEHOLDERS.
+        String[] values = {
+                player.getName(),
+                player.getUniqueId().toString(),
+                String.valueOf(loc.getBlockX()),
+                String.valueOf(loc.getBlockY()),
+                String.valueOf(loc.getBlockZ()),
+                loc.getWorld().getName(),
+                getTranslatedType(spawnerType),
+                itemType,
+                itemName,
+                String.valueOf(player.getPing()),
+                String.format(Locale.US, "%.2f", Bukkit.getServer().getTPS()[0]),
+                getClientType(player),
+                player.getGameMode().name()
+        };
 
-                webhook.addEmbed(embed);
-                webhook.execute();
+        try {
+            DiscordWebhook.EmbedObject embed = new DiscordWebhook.EmbedObject()
+                    .setTitle(event.title.render(values))
+                    .setDescription(event.description.render(values))
+                    .setColor(event.color)
+                    .setThumbnail(current.avatar.render(values))
+                    .setFooter("Tarih: " + FOOTER_DATE.format(LocalDateTime.now()));
 
-            } catch (Exception e) {
-                plugin.getLogger().warning("Webhook could not be sent: " + e.getMessage());
+            for (FieldTemplate field : event.fields) {
+                embed.addField(field.name.render(values), field.value.render(values), field.inline);
             }
-        });
+
+            dispatcher.enqueue(embed);
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Webhook could not be sent: " + e.getMessage());
+        }
+    }
+
+    // Everything that depends on discord.yml is compiled here once and published in a single volatile write.
+    private static Templates compileTemplates(FileConfiguration config) {
+        MessageTemplate avatar = compile(config.getString("webhook.avatar-api", "https://mc-heads.net/avatar/%uuid%/128"));
+
+        Map<String, EventTemplate> events = new HashMap<>();
+        ConfigurationSection eventsSection = config.getConfigurationSection("events");
+        if (eventsSection != null) {
+            for (String key : eventsSection.getKeys(false)) {
+                ConfigurationSection section = eventsSection.getConfigurationSection(key);
+                if (section == null || !section.getBoolean("enabled", false)) continue;
+
+                List<FieldTemplate> fields = new ArrayList<>();
+                for (Map<?, ?> field : section.getMapList("fields")) {
+                    boolean inline = !(field.get("inline") instanceof Boolean) || (Boolean) field.get("inline");
+                    fields.add(new FieldTemplate(compile(String.valueOf(field.get("name"))), compile(String.valueOf(field.get("value"))), inline));
+                }
+                events.put(key, new EventTemplate(compile(section.getString("title", "")), compile(section.getString("description", "")),
+                        section.getInt("color", 0), fields));
+            }
+        }
+        return new Templates(avatar, events);
+    }
+
+    private static MessageTemplate compile(String text) {
+        if (text == null || text.equals("null")) {
+            text = "";
+        }
+        return MessageTemplate.compile(text, false, PLACEHOLDERS);
     }
 
     private String getTranslatedType(String type) {
@@ -155,48 +214,45 @@ public class WebhookManager {
     }
 
     private String getClientType(Player player) {
-        try {
-            Class<?> floodgateApi = Class.forName("org.geysermc.floodgate.api.FloodgateApi");
-            Object apiInstance = floodgateApi.getMethod("getInstance").invoke(null);
-            boolean isBedrock = (boolean) floodgateApi.getMethod("isFloodgatePlayer", java.util.UUID.class).invoke(apiInstance, player.getUniqueId());
-            if (isBedrock) {
-                return "Bedrock";
-            }
-        } catch (Exception ignored) {}
+        if (plugin instanceof Spawner) {
+            return ((Spawner) plugin).getPlatformResolver().get(player);
+        }
+        return PlatformResolver.JAVA;
+    }
 
-        try {
-            Class<?> geyserApi = Class.forName("org.geysermc.geyser.api.GeyserApi");
-            Object apiInstance = geyserApi.getMethod("api").invoke(null);
-            boolean isBedrock = (boolean) geyserApi.getMethod("isBedrockPlayer", java.util.UUID.class).invoke(apiInstance, player.getUniqueId());
-            if (isBedrock) {
-                return "Bedrock";
-            }
-        } catch (Exception ignored) {}
+    private static final class Templates {
+        final MessageTemplate avatar;
+        final Map<String, EventTemplate> events;
 
-        return "Java";
+        Templates(MessageTemplate avatar, Map<String, EventTemplate> events) {
+            this.avatar = avatar;
+            this.events = events;
+        }
     }
 
-    private String replacePlaceholders(String text, String pName, String pUuid, String pPing, String pTps, String pClient, String pWorld, String pX, String pY, String pZ, String pGm, String sType, String iType, String iName) {
-        if (text == null || text.equals("null")) {
-            return "";
+    private static final class EventTemplate {
+        final MessageTemplate title;
+        final MessageTemplate description;
+        final int color;
+        final List<FieldTemplate> fields;
+
+        EventTemplate(MessageTemplate title, MessageTemplate description, int color, List<FieldTemplate> fields) {
+            this.title = title;
+            this.description = description;
+            this.color = color;
+            this.fields = fields;
+        }
+    }
+
+    private static final class FieldTemplate {
+        final MessageTemplate name;
+        final MessageTemplate value;
+        final boolean inline;
+
+        FieldTemplate(MessageTemplate name, MessageTemplate value, boolean inline) {
+            this.name = name;
+            this.value = value;
+            this.inline = inline;
         }
-        
-        String result = text;
-        
-        result = result.replace("%player%", pName);
-        result = result.replace("%uuid%", pUuid);
-        result = result.replace("%x%", pX);
-        result = result.replace("%y%", pY);
-        result = result.replace("%z%", pZ);
-        result = result.replace("%world%", pWorld);
-        result = result.replace("%type%", sType);
-        result = result.replace("%item%", iType);
-        result = result.replace("%item_name%", iName);
-        result = result.replace("%ping%", pPing);
-        result = result.replace("%tps%", pTps);
-        result = result.replace("%client%", pClient);
-        result = result.replace("%gamemode%", pGm);
-        
-        return result;
     }
-}
\ No newline at end of file
+}
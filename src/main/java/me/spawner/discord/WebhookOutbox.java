@@ -0,0 +1,448 @@
+package me.spawner.discord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+// Write-ahead outbox: every embed is appended to a segment file before it is sent, and the
+// acknowledged position only moves forward once Discord accepted the message. Callers only hand entries to
+// an in-memory queue; the outbox's own writer thread does all segment writes and syncs.
+public class WebhookOutbox {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    private final File folder;
+    private final File ackFile;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final boolean dropOldest;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Queue<byte[]> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicLong incomingBytes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean open = true;
+    private FileChannel writeChannel;
+    private long writeSeq;
+    private volatile long totalBytes;
+
+    private long ackSeq;
+    private long ackOffset;
+    private int ackRecords;
+    private volatile int pending;
+
+    public WebhookOutbox(File folder, long maxBytes, boolean dropOldest) throws IOException {
+        this.folder = folder;
+        this.ackFile = new File(folder, "ack.dat");
+        this.maxBytes = Math.max(256 * 1024, maxBytes);
+        this.segmentBytes = Math.max(16 * 1024, this.maxBytes / 8);
+        this.dropOldest = dropOldest;
+
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Outbox folder could not be created");
+        }
+        recover();
+
+        this.writer = new Thread(this::runWriter, "SpawnerSystem-WebhookOutbox");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Never touches the disk, so it is safe to call from the game thread.
+    public boolean append(byte[] payload) {
+        if (!open || payload.length > MAX_RECORD_SIZE || incomingBytes.get() + payload.length > maxBytes) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        incomingBytes.addAndGet(payload.length);
+        incoming.offer(payload);
+        LockSupport.unpark(writer);
+        return true;
+    }
+
+    private void runWriter() {
+        while (open) {
+            if (incoming.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+            writeIncoming();
+        }
+    }
+
+    private synchronized void writeIncoming() {
+        byte[] payload;
+        boolean wrote = false;
+        while ((payload = incoming.poll()) != null) {
+            incomingBytes.addAndGet(-payload.length);
+            if (write(payload)) {
+                wrote = true;
+            } else {
+                dropped.incrementAndGet();
+            }
+        }
+        if (wrote) notifyAll();
+    }
+
+    private boolean write(byte[] payload) {
+        if (writeChannel == null) return false;
+
+        int size = HEADER_SIZE + payload.length;
+        if (!makeRoom(size)) return false;
+
+        Segment segment = segments.get(writeSeq);
+        if (segment.bytes + size > segmentBytes && segment.records > 0) {
+            try {
+                roll();
+            } catch (IOException e) {
+                return false;
+            }
+            segment = segments.get(writeSeq);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        try {
+            while (record.hasRemaining()) {
+                writeChannel.write(record);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        segment.bytes += size;
+        segment.records++;
+        totalBytes += size;
+        pending++;
+        return true;
+    }
+
+    public int getPending() {
+        return pending + incoming.size();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSizeBytes() {
+        return totalBytes + incomingBytes.get();
+    }
+
+    // Blocks until at least `count` entries are pending or the timeout passes.
+    public synchronized boolean await(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (pending < count) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) return false;
+            wait(remaining);
+        }
+        return true;
+    }
+
+    public synchronized void awaitAny() throws InterruptedException {
+        while (pending == 0) {
+            wait();
+        }
+    }
+
+    // Reads up to `max` unacknowledged entries, oldest first, without removing them.
+    public Batch peek(int max) throws IOException {
+        long seq;
+        long offset;
+        int recordIndex;
+        Map<Long, Long> limits = new TreeMap<>();
+        synchronized (this) {
+            seq = ackSeq;
+            offset = ackOffset;
+            recordIndex = ackRecords;
+            if (pending == 0) return new Batch(new ArrayList<>(), seq, offset, recordIndex);
+            for (Map.Entry<Long, Segment> entry : segments.tailMap(seq, true).entrySet()) {
+                limits.put(entry.getKey(), entry.getValue().bytes);
+            }
+        }
+
+        // Only bytes that were fully written before the snapshot are read, so appends can continue meanwhile.
+        List<byte[]> entries = new ArrayList<>(max);
+        for (Map.Entry<Long, Long> limit : limits.entrySet()) {
+            if (entries.size() >= max) break;
+            if (limit.getKey() != seq) {
+                seq = limit.getKey();
+                offset = 0;
+                recordIndex = 0;
+            }
+            try (FileChannel channel = FileChannel.open(segmentFile(seq).toPath(), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (entries.size() < max && offset + HEADER_SIZE <= limit.getValue()) {
+                    header.clear();
+                    readFully(channel, header, offset);
+                    header.flip();
+                    int length = header.getInt();
+                    ByteBuffer payload = ByteBuffer.allocate(length);
+                    readFully(channel, payload, offset + HEADER_SIZE);
+                    entries.add(payload.array());
+                    offset += HEADER_SIZE + length;
+                    recordIndex++;
+                }
+            }
+        }
+        return new Batch(entries, seq, offset, recordIndex);
+    }
+
+    public synchronized void ack(Batch batch) {
+        if (batch.isEmpty()) return;
+        // The overflow policy may already have dropped past this batch.
+        if (batch.endSeq < ackSeq || (batch.endSeq == ackSeq && batch.endOffset <= ackOffset)) return;
+
+        ackSeq = batch.endSeq;
+        ackOffset = batch.endOffset;
+        ackRecords = batch.endRecords;
+        while (!segments.isEmpty() && segments.firstKey() < ackSeq) {
+            deleteSegment(segments.firstKey());
+        }
+        Segment current = segments.get(ackSeq);
+        if (current != null && ackSeq != writeSeq && ackOffset >= current.bytes) {
+            deleteSegment(ackSeq);
+            moveAckToFirstSegment();
+        }
+        recount();
+        writeAck();
+    }
+
+    public void close() {
+        open = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannel();
+    }
+
+    private synchronized void closeChannel() {
+        if (writeChannel == null) return;
+        writeIncoming();
+        try {
+            writeChannel.force(false);
+            writeChannel.close();
+        } catch (IOException ignored) {
+        }
+        writeChannel = null;
+        writeAck();
+        notifyAll();
+    }
+
+    private void recount() {
+        int count = 0;
+        for (Map.Entry<Long, Segment> entry : segments.tailMap(ackSeq, true).entrySet()) {
+            count += entry.getValue().records;
+        }
+        pending = Math.max(0, count - ackRecords);
+    }
+
+    private void moveAckToFirstSegment() {
+        ackSeq = segments.isEmpty() ? writeSeq : segments.firstKey();
+        ackOffset = 0;
+        ackRecords = 0;
+    }
+
+    private boolean makeRoom(int size) {
+        if (totalBytes + size <= maxBytes) return true;
+        if (!dropOldest) return false;
+
+        while (totalBytes + size > maxBytes) {
+            if (segments.size() == 1) {
+                try {
+                    roll();
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            long oldest = segments.firstKey();
+            Segment segment = segments.get(oldest);
+            dropped.addAndGet(oldest == ackSeq ? segment.records - ackRecords : segment.records);
+            deleteSegment(oldest);
+            if (oldest == ackSeq) moveAckToFirstSegment();
+        }
+        recount();
+        writeAck();
+        return true;
+    }
+
+    private void roll() throws IOException {
+        if (writeChannel != null) {
+            writeChannel.force(false);
+            writeChannel.close();
+        }
+        writeSeq++;
+        openWriter();
+    }
+
+    private void openWriter() throws IOException {
+        writeChannel = FileChannel.open(segmentFile(writeSeq).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.putIfAbsent(writeSeq, new Segment());
+    }
+
+    private void deleteSegment(long seq) {
+        Segment segment = segments.remove(seq);
+        if (segment != null) totalBytes -= segment.bytes;
+        try {
+            Files.deleteIfExists(segmentFile(seq).toPath());
+        } catch (IOException ignored) {
+        }
+    }
+
+    private File segmentFile(long seq) {
+        return new File(folder, SEGMENT_PREFIX + String.format("%016d", seq) + SEGMENT_SUFFIX);
+    }
+
+    private void recover() throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                long seq;
+                try {
+                    seq = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                Segment segment = new Segment();
+                long[] valid = {0};
+                segment.records = scan(file, Long.MAX_VALUE, valid);
+                segment.bytes = valid[0];
+                if (valid[0] < file.length()) {
+                    // A torn tail from a crash mid-write is cut off; every record before it is intact.
+                    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                        channel.truncate(valid[0]);
+                    }
+                }
+                segments.put(seq, segment);
+                totalBytes += segment.bytes;
+            }
+        }
+
+        readAck();
+        while (!segments.isEmpty() && segments.firstKey() < ackSeq) {
+            deleteSegment(segments.firstKey());
+        }
+        writeSeq = segments.isEmpty() ? Math.max(ackSeq, 0) : segments.lastKey();
+        if (!segments.containsKey(ackSeq)) moveAckToFirstSegment();
+
+        Segment first = segments.get(ackSeq);
+        ackOffset = first == null ? 0 : Math.min(ackOffset, first.bytes);
+        ackRecords = first == null ? 0 : scan(segmentFile(ackSeq), ackOffset, null);
+        recount();
+        openWriter();
+    }
+
+    // Counts intact records that end at or before `limit`; `valid` receives the end of the last one.
+    private static int scan(File file, long limit, long[] valid) {
+        int records = 0;
+        long offset = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            while (offset + HEADER_SIZE <= size) {
+                header.clear();
+                readFully(channel, header, offset);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                long end = offset + HEADER_SIZE + length;
+                if (length < 0 || length > MAX_RECORD_SIZE || end > size || end > limit) break;
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, offset + HEADER_SIZE);
+                crc.reset();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != checksum) break;
+                offset = end;
+                records++;
+            }
+        } catch (IOException ignored) {
+        }
+        if (valid != null) valid[0] = offset;
+        return records;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new IOException("Unexpected end of outbox segment");
+        }
+    }
+
+    private void readAck() {
+        if (!ackFile.exists()) return;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(ackFile.toPath()));
+            if (buffer.remaining() < 16) return;
+            ackSeq = buffer.getLong();
+            ackOffset = buffer.getLong();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void writeAck() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(ackSeq).putLong(ackOffset).flip();
+        try (FileChannel channel = FileChannel.open(ackFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final class Segment {
+        long bytes;
+        int records;
+    }
+
+    public static final class Batch {
+        private final List<byte[]> entries;
+        private final long endSeq;
+        private final long endOffset;
+        private final int endRecords;
+
+        private Batch(List<byte[]> entries, long endSeq, long endOffset, int endRecords) {
+            this.entries = entries;
+            this.endSeq = endSeq;
+            this.endOffset = endOffset;
+            this.endRecords = endRecords;
+        }
+
+        public List<byte[]> getEntries() {
+            return entries;
+        }
+
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+    }
+}
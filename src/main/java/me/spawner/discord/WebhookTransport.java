@@ -0,0 +1,60 @@
+package me.spawner.discord;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// One shared HTTP client, so connections to Discord are kept alive and reused (HTTP/2 where available).
+// Requests come from the dispatcher's single sender thread, one at a time, which keeps batches in order.
+public class WebhookTransport {
+
+    private static volatile WebhookTransport shared = new WebhookTransport(5000, 10000);
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final long connectTimeoutMillis;
+    private final long requestTimeoutMillis;
+
+    public WebhookTransport(long connectTimeoutMillis, long requestTimeoutMillis) {
+        this.connectTimeoutMillis = Math.max(500, connectTimeoutMillis);
+        this.requestTimeoutMillis = Math.max(1000, requestTimeoutMillis);
+        this.requestTimeout = Duration.ofMillis(this.requestTimeoutMillis);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(this.connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    public static WebhookTransport shared() {
+        return shared;
+    }
+
+    // Keeps the current client (and its open connections) unless the settings actually changed.
+    public static void configure(long connectTimeoutMillis, long requestTimeoutMillis) {
+        WebhookTransport current = shared;
+        if (current.connectTimeoutMillis == Math.max(500, connectTimeoutMillis)
+                && current.requestTimeoutMillis == Math.max(1000, requestTimeoutMillis)) {
+            return;
+        }
+        shared = new WebhookTransport(connectTimeoutMillis, requestTimeoutMillis);
+    }
+
+    public DiscordWebhook.Response post(String url, byte[] body, int length) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("User-Agent", "Java-DiscordWebhook")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body, 0, length))
+                .build();
+
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        return new DiscordWebhook.Response(response.statusCode(),
+                response.headers().firstValue("Retry-After").orElse(null),
+                response.headers().firstValue("X-RateLimit-Remaining").orElse(null),
+                response.headers().firstValue("X-RateLimit-Reset-After").orElse(null));
+    }
+}
@@ -0,0 +1,230 @@
+package me.spawner.engine;
+
+import me.spawner.Spawner;
+import me.spawner.registry.ChunkKeys;
+import me.spawner.registry.SpawnerRecord;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.entity.SpawnerSpawnEvent;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+// Times spawner spawns itself instead of letting every spawner tick on its own. Spawners wait in a queue ordered
+// by their next spawn; each tick only the due ones are looked at, and player range and the chunk mob limit are
+// checked against the PlayerGrid and ChunkMobCounter before any block or entity is touched.
+public class SpawnerTickEngine implements Listener {
+
+    private static final long RECHECK_TICKS = 20;
+
+    private final Spawner plugin;
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong((Entry entry) -> entry.deadline));
+    private final Set<SpawnerRecord> scheduled = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Entity> rejected = new ThreadLocal<>();
+    private final ThreadLocal<Entity> firing = new ThreadLocal<>();
+
+    private volatile boolean enabled;
+    private volatile long currentTick;
+    private int delayTicks = 500;
+    private int spawnCount = 3;
+    private int spawnRange = 4;
+    private double activationRange = 16;
+    private int maxMobsPerChunk = 4;
+    private int spawnersPerTick = 50;
+    private long budgetNanos = 1_000_000L;
+
+    public SpawnerTickEngine(Spawner plugin) {
+        this.plugin = plugin;
+    }
+
+    public void configure(boolean enabled, int delayTicks, int spawnCount, int spawnRange, int activationRange,
+                          int maxMobsPerChunk, int spawnersPerTick, int tickBudgetMicros) {
+        this.enabled = enabled;
+        this.delayTicks = Math.max(1, delayTicks);
+        this.spawnCount = Math.max(1, spawnCount);
+        this.spawnRange = Math.max(0, spawnRange);
+        this.activationRange = Math.max(1, activationRange);
+        this.maxMobsPerChunk = maxMobsPerChunk;
+        this.spawnersPerTick = Math.max(1, spawnersPerTick);
+        this.budgetNanos = Math.max(50, tickBudgetMicros) * 1_000L;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void start() {
+        if (!enabled) return;
+        if (plugin.isFolia()) {
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (t) -> tick(), 1L, 1L);
+        } else {
+            Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    // New spawners get a random first deadline within one delay, so a freshly loaded area does not spawn at once.
+    public void schedule(SpawnerRecord record) {
+        if (!enabled || !scheduled.add(record)) return;
+        offer(new Entry(record, currentTick + 1 + ThreadLocalRandom.current().nextInt(delayTicks)));
+    }
+
+    public void clear() {
+        synchronized (queue) {
+            queue.clear();
+        }
+        scheduled.clear();
+    }
+
+    private void offer(Entry entry) {
+        synchronized (queue) {
+            queue.offer(entry);
+        }
+    }
+
+    private void tick() {
+        long now = ++currentTick;
+        long start = System.nanoTime();
+        int processed = 0;
+
+        while (processed < spawnersPerTick) {
+            Entry entry;
+            synchronized (queue) {
+                entry = queue.peek();
+                if (entry == null || entry.deadline > now) return;
+                queue.poll();
+            }
+            process(entry, now);
+            processed++;
+
+            if (System.nanoTime() - start >= budgetNanos) return;
+        }
+    }
+
+    private void process(Entry entry, long now) {
+        SpawnerRecord record = entry.record;
+        Location loc = record.toLocation();
+        if (loc == null || plugin.getSpawnerRegistry().get(loc) != record) {
+            // Broken or unloaded; it is scheduled again when its chunk loads.
+            scheduled.remove(record);
+            return;
+        }
+
+        EntityType type = record.getType();
+        double x = record.getX() + 0.5;
+        double y = record.getY() + 0.5;
+        double z = record.getZ() + 0.5;
+        if (type == null
+                || !plugin.getPlayerGrid().anyNear(loc.getWorld(), x, y, z, activationRange)
+                || plugin.getMobCounter().count(ChunkKeys.of(loc), type) >= maxMobsPerChunk) {
+            entry.deadline = now + RECHECK_TICKS;
+            offer(entry);
+            return;
+        }
+
+        // spawn() puts the entry back once it has read the spawner's own delay.
+        if (plugin.isFolia()) {
+            Bukkit.getRegionScheduler().execute(plugin, loc, () -> spawn(entry, loc, type));
+        } else {
+            spawn(entry, loc, type);
+        }
+    }
+
+    // Must run on the thread that owns the spawner's chunk.
+    private void spawn(Entry entry, Location loc, EntityType type) {
+        SpawnerRecord record = entry.record;
+        World world = loc.getWorld();
+        BlockState state = world.isChunkLoaded(record.getX() >> 4, record.getZ() >> 4)
+                ? world.getBlockAt(record.getX(), record.getY(), record.getZ()).getState() : null;
+        if (!(state instanceof CreatureSpawner spawner)) {
+            scheduled.remove(record);
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Like vanilla, the next spawn is drawn between the spawner's own min and max delay.
+        int min = spawner.getMinSpawnDelay();
+        int max = Math.max(min, spawner.getMaxSpawnDelay());
+        entry.deadline = currentTick + Math.max(1, min + random.nextInt(max - min + 1));
+        offer(entry);
+
+        Class<? extends Entity> entityClass = type.getEntityClass();
+        if (entityClass == null) return;
+
+        int count = spawnCount * record.getStackSize();
+        for (int i = 0; i < count; i++) {
+            Location at = new Location(world,
+                    record.getX() + (random.nextDouble() - random.nextDouble()) * spawnRange + 0.5,
+                    record.getY() + random.nextInt(3) - 1,
+                    record.getZ() + (random.nextDouble() - random.nextDouble()) * spawnRange + 0.5,
+                    random.nextFloat() * 360f, 0f);
+            if (!canSpawnAt(world, at)) continue;
+
+            // Like vanilla, the event sees the mob before it is in the world; a cancelled one is then kept out by
+            // cancelling its spawn event in onEntitySpawn.
+            try {
+                spawn(at, entityClass, entity -> {
+                    SpawnerSpawnEvent event = new SpawnerSpawnEvent(entity, spawner);
+                    firing.set(entity);
+                    Bukkit.getPluginManager().callEvent(event);
+                    if (event.isCancelled()) rejected.set(entity);
+                });
+            } finally {
+                firing.remove();
+                rejected.remove();
+            }
+        }
+    }
+
+    // Vanilla spawners keep their own settings, so nothing written to the block outlives the engine; their spawns
+    // are cancelled here instead and only the engine's own events go through.
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onSpawnerSpawn(SpawnerSpawnEvent event) {
+        if (!enabled || firing.get() == event.getEntity()) return;
+        event.setCancelled(true);
+        plugin.restartSpawnDelay(event.getSpawner());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onEntitySpawn(EntitySpawnEvent event) {
+        if (event instanceof SpawnerSpawnEvent) return;
+        Entity entity = rejected.get();
+        if (entity != null && entity == event.getEntity()) event.setCancelled(true);
+    }
+
+    private static <T extends Entity> void spawn(Location at, Class<T> entityClass, Consumer<Entity> setup) {
+        at.getWorld().spawn(at, entityClass, setup::accept, CreatureSpawnEvent.SpawnReason.SPAWNER);
+    }
+
+    private static boolean canSpawnAt(World world, Location at) {
+        int bx = at.getBlockX();
+        int by = at.getBlockY();
+        int bz = at.getBlockZ();
+        if (!world.isChunkLoaded(bx >> 4, bz >> 4)) return false;
+        if (!Bukkit.isOwnedByCurrentRegion(world, bx >> 4, bz >> 4)) return false;
+        return world.getBlockAt(bx, by, bz).isPassable() && world.getBlockAt(bx, by + 1, bz).isPassable();
+    }
+
+    private static final class Entry {
+        final SpawnerRecord record;
+        long deadline;
+
+        Entry(SpawnerRecord record, long deadline) {
+            this.record = record;
+            this.deadline = deadline;
+        }
+    }
+}
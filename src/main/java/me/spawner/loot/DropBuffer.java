@@ -0,0 +1,166 @@
+package me.spawner.loot;
+
+import me.spawner.Spawner;
+import me.spawner.registry.SpawnerRecord;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Collects drops and XP per spawner and releases them as merged stacks and a single orb every flush.
+public class DropBuffer {
+
+    private final Spawner plugin;
+    private final Map<SpawnerRecord, Pending> pending = new ConcurrentHashMap<>();
+
+    public DropBuffer(Spawner plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start(int flushTicks) {
+        long period = Math.max(1, flushTicks);
+        if (plugin.isFolia()) {
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (t) -> flush(), period, period);
+        } else {
+            Bukkit.getScheduler().runTaskTimer(plugin, this::flush, period, period);
+        }
+    }
+
+    public void add(SpawnerRecord record, LootProfiles.Outcome outcome, boolean includeXp) {
+        while (true) {
+            Pending buffer = pending.computeIfAbsent(record, r -> new Pending());
+            synchronized (buffer) {
+                if (buffer.released) continue;
+                for (int i = 0; i < outcome.size(); i++) {
+                    buffer.add(outcome.getMaterial(i), outcome.getAmount(i));
+                }
+                if (includeXp) buffer.xp += outcome.getXp();
+                return;
+            }
+        }
+    }
+
+    public void add(SpawnerRecord record, Material material, long amount) {
+        while (true) {
+            Pending buffer = pending.computeIfAbsent(record, r -> new Pending());
+            synchronized (buffer) {
+                if (buffer.released) continue;
+                buffer.add(material, amount);
+                return;
+            }
+        }
+    }
+
+    public void addXp(SpawnerRecord record, int xp) {
+        if (xp <= 0) return;
+        while (true) {
+            Pending buffer = pending.computeIfAbsent(record, r -> new Pending());
+            synchronized (buffer) {
+                if (buffer.released) continue;
+                buffer.xp += xp;
+                return;
+            }
+        }
+    }
+
+    // A buffer stays queued until it is actually dropped, so drops of a spawner whose chunk unloaded wait for it to load again.
+    public void flush() {
+        for (Map.Entry<SpawnerRecord, Pending> entry : pending.entrySet()) {
+            SpawnerRecord record = entry.getKey();
+            Pending buffer = entry.getValue();
+            Location loc = record.toLocation();
+            if (loc == null) {
+                pending.remove(record, buffer);
+                continue;
+            }
+
+            if (plugin.isFolia()) {
+                Bukkit.getRegionScheduler().execute(plugin, loc, () -> release(record, loc, buffer));
+            } else {
+                release(record, loc, buffer);
+            }
+        }
+    }
+
+    // Drops whatever is left right away, used on shutdown.
+    public void flushNow() {
+        for (Map.Entry<SpawnerRecord, Pending> entry : pending.entrySet()) {
+            Location loc = entry.getKey().toLocation();
+            if (loc == null) continue;
+            try {
+                release(entry.getKey(), loc, entry.getValue());
+            } catch (RuntimeException ignored) {
+            }
+        }
+        pending.clear();
+    }
+
+    public void clear() {
+        pending.clear();
+    }
+
+    private void release(SpawnerRecord record, Location spawnerLoc, Pending buffer) {
+        World world = spawnerLoc.getWorld();
+        if (world == null) {
+            pending.remove(record, buffer);
+            return;
+        }
+        if (!world.isChunkLoaded(spawnerLoc.getBlockX() >> 4, spawnerLoc.getBlockZ() >> 4)) return;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Location dropLoc = spawnerLoc.clone().add((random.nextDouble() * 2 - 1) * 1.3, 0.2, (random.nextDouble() * 2 - 1) * 1.3);
+
+        synchronized (buffer) {
+            if (buffer.released) return;
+            // Later additions go to a new buffer.
+            buffer.released = true;
+            pending.remove(record, buffer);
+            for (int i = 0; i < buffer.size; i++) {
+                Material material = buffer.materials[i];
+                long remaining = buffer.amounts[i];
+                int maxStack = Math.max(1, material.getMaxStackSize());
+                while (remaining > 0) {
+                    int amount = (int) Math.min(maxStack, remaining);
+                    world.dropItem(dropLoc, new ItemStack(material, amount));
+                    remaining -= amount;
+                }
+            }
+            if (buffer.xp > 0) {
+                int xp = (int) Math.min(Integer.MAX_VALUE, buffer.xp);
+                world.spawn(dropLoc, ExperienceOrb.class, orb -> orb.setExperience(xp));
+            }
+            buffer.size = 0;
+            buffer.xp = 0;
+        }
+    }
+
+    private static final class Pending {
+        Material[] materials = new Material[4];
+        long[] amounts = new long[4];
+        int size;
+        long xp;
+        boolean released;
+
+        void add(Material material, long amount) {
+            for (int i = 0; i < size; i++) {
+                if (materials[i] == material) {
+                    amounts[i] += amount;
+                    return;
+                }
+            }
+            if (size == materials.length) {
+                materials = Arrays.copyOf(materials, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            materials[size] = material;
+            amounts[size++] = amount;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package me.spawner.loot;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Drops kept inside a spawner as plain counts per material, stored in its PDC as one small byte array.
+public class DropStorage {
+
+    private static final int FORMAT = 1;
+
+    private Material[] materials = new Material[4];
+    private long[] counts = new long[4];
+    private int size;
+    private long total;
+
+    // Items with meta (enchanted gear, named items) cannot be rebuilt from a material and a count.
+    public static boolean canStore(ItemStack item) {
+        if (item == null || item.getType().isAir()) return false;
+        return !item.hasItemMeta() || item.isSimilar(new ItemStack(item.getType()));
+    }
+
+    // Returns how many did not fit.
+    public synchronized long add(Material material, long amount, long maxTotal, int maxTypes) {
+        long accepted = Math.min(amount, Math.max(0, maxTotal - total));
+        if (accepted <= 0) return amount;
+
+        int index = indexOf(material);
+        if (index < 0) {
+            if (size >= maxTypes) return amount;
+            if (size == materials.length) {
+                materials = Arrays.copyOf(materials, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            index = size++;
+            materials[index] = material;
+        }
+        counts[index] += accepted;
+        total += accepted;
+        return amount - accepted;
+    }
+
+    // Returns how many were taken.
+    public synchronized long take(Material material, long max) {
+        int index = indexOf(material);
+        if (index < 0 || max <= 0) return 0;
+
+        long taken = Math.min(max, counts[index]);
+        counts[index] -= taken;
+        total -= taken;
+        if (counts[index] == 0) {
+            size--;
+            System.arraycopy(materials, index + 1, materials, index, size - index);
+            System.arraycopy(counts, index + 1, counts, index, size - index);
+            materials[size] = null;
+        }
+        return taken;
+    }
+
+    public synchronized long getCount(Material material) {
+        int index = indexOf(material);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized Material[] materials() {
+        return Arrays.copyOf(materials, size);
+    }
+
+    public synchronized byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + size * 24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeShort(size);
+            for (int i = 0; i < size; i++) {
+                out.writeUTF(materials[i].name());
+                out.writeLong(counts[i]);
+            }
+        } catch (IOException ignored) {
+        }
+        return bytes.toByteArray();
+    }
+
+    public static DropStorage fromBytes(byte[] data) {
+        DropStorage storage = new DropStorage();
+        if (data == null || data.length == 0) return storage;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readUnsignedByte() != FORMAT) return storage;
+            int entries = in.readUnsignedShort();
+            for (int i = 0; i < entries; i++) {
+                Material material = Material.matchMaterial(in.readUTF());
+                long count = in.readLong();
+                // Materials removed by a server update are dropped from the storage.
+                if (material != null && count > 0) storage.add(material, count, Long.MAX_VALUE, Integer.MAX_VALUE);
+            }
+        } catch (IOException ignored) {
+        }
+        return storage;
+    }
+
+    private int indexOf(Material material) {
+        for (int i = 0; i < size; i++) {
+            if (materials[i] == material) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,93 @@
+package me.spawner.loot;
+
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Loot of auto-slain mobs, learned from real kills. Vanilla entity loot tables cannot be rolled without an entity,
+// so each type keeps a ring of recent real outcomes and a virtual kill replays one of them at random.
+public class LootProfiles {
+
+    private static final int RING_SIZE = 64;
+
+    private final Map<EntityType, Profile> profiles = new ConcurrentHashMap<>();
+    private volatile int learnSamples = 16;
+
+    public void setLearnSamples(int learnSamples) {
+        this.learnSamples = Math.max(1, Math.min(RING_SIZE, learnSamples));
+    }
+
+    public void observe(EntityType type, List<ItemStack> drops, int xp) {
+        List<ItemStack> plain = new ArrayList<>(drops.size());
+        for (ItemStack drop : drops) {
+            if (DropStorage.canStore(drop)) plain.add(drop);
+        }
+
+        Material[] materials = new Material[plain.size()];
+        int[] amounts = new int[plain.size()];
+        for (int i = 0; i < plain.size(); i++) {
+            materials[i] = plain.get(i).getType();
+            amounts[i] = plain.get(i).getAmount();
+        }
+        profiles.computeIfAbsent(type, t -> new Profile()).add(new Outcome(materials, amounts, xp));
+    }
+
+    // Returns null until enough real kills of this type were seen.
+    public Outcome roll(EntityType type) {
+        Profile profile = profiles.get(type);
+        return profile != null ? profile.roll(learnSamples) : null;
+    }
+
+    public boolean isLearned(EntityType type) {
+        Profile profile = profiles.get(type);
+        return profile != null && profile.size() >= learnSamples;
+    }
+
+    public void clear() {
+        profiles.clear();
+    }
+
+    public static final class Outcome {
+        private final Material[] materials;
+        private final int[] amounts;
+        private final int xp;
+
+        Outcome(Material[] materials, int[] amounts, int xp) {
+            this.materials = materials;
+            this.amounts = amounts;
+            this.xp = xp;
+        }
+
+        public int size() { return materials.length; }
+        public Material getMaterial(int index) { return materials[index]; }
+        public int getAmount(int index) { return amounts[index]; }
+        public int getXp() { return xp; }
+    }
+
+    private static final class Profile {
+        private final Outcome[] ring = new Outcome[RING_SIZE];
+        private int next;
+        private int size;
+
+        synchronized void add(Outcome outcome) {
+            ring[next] = outcome;
+            next = (next + 1) % RING_SIZE;
+            if (size < RING_SIZE) size++;
+        }
+
+        synchronized Outcome roll(int minSamples) {
+            if (size < minSamples) return null;
+            return ring[ThreadLocalRandom.current().nextInt(size)];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package me.spawner.registry;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public final class ChunkKeys {
+
+    // 20 bits world id | 22 bits chunk x | 22 bits chunk z
+    private static final int COORD_BITS = 22;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+
+    private static final Map<UUID, Integer> WORLD_IDS = new ConcurrentHashMap<>();
+    private static final CopyOnWriteArrayList<UUID> WORLDS = new CopyOnWriteArrayList<>();
+
+    private ChunkKeys() {
+    }
+
+    public static int worldId(World world) {
+        Integer id = WORLD_IDS.get(world.getUID());
+        if (id != null) return id;
+
+        synchronized (WORLDS) {
+            return WORLD_IDS.computeIfAbsent(world.getUID(), uid -> {
+                WORLDS.add(uid);
+                return WORLDS.size() - 1;
+            });
+        }
+    }
+
+    public static World world(int worldId) {
+        if (worldId < 0 || worldId >= WORLDS.size()) return null;
+        return Bukkit.getWorld(WORLDS.get(worldId));
+    }
+
+    public static long pack(int worldId, int chunkX, int chunkZ) {
+        return ((long) worldId << (COORD_BITS * 2))
+                | ((chunkX & COORD_MASK) << COORD_BITS)
+                | (chunkZ & COORD_MASK);
+    }
+
+    public static long of(World world, int chunkX, int chunkZ) {
+        return pack(worldId(world), chunkX, chunkZ);
+    }
+
+    public static long of(Chunk chunk) {
+        return of(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    public static long of(Location loc) {
+        return of(loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+    }
+
+    public static int worldId(long key) {
+        return (int) (key >>> (COORD_BITS * 2));
+    }
+
+    public static int chunkX(long key) {
+        return (int) ((key << (64 - COORD_BITS * 2)) >> (64 - COORD_BITS));
+    }
+
+    public static int chunkZ(long key) {
+        return (int) ((key << (64 - COORD_BITS)) >> (64 - COORD_BITS));
+    }
+
+    public static World world(long key) {
+        return world(worldId(key));
+    }
+}
@@ -0,0 +1,424 @@
+package me.spawner.registry;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import me.spawner.Spawner;
+import me.spawner.utils.IntLongMap;
+import me.spawner.utils.IntSet;
+import me.spawner.utils.LanguageCache;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Counts are kept up to date from Paper's entity add/remove events. Without those events (Spigot) nothing is
+// tracked and count() scans the chunk instead, like before the counter existed.
+public class ChunkMobCounter {
+
+    private static final long UNTRACKED = Long.MIN_VALUE;
+    private static final int TYPE_COUNT = EntityType.values().length;
+    private static final int TOTAL_SLOT = TYPE_COUNT;
+
+    private final Spawner plugin;
+    private final Map<Long, AtomicIntegerArray> counts = new ConcurrentHashMap<>();
+    private final IntLongMap homes = new IntLongMap(1024, UNTRACKED);
+    // Entity ids per home chunk, guarded by homes, so a chunk scan only looks at the mobs counted in that chunk.
+    private final Map<Long, IntSet> residents = new HashMap<>();
+    private final Queue<Long> resyncQueue = new ConcurrentLinkedQueue<>();
+    private int resyncChunksPerTick;
+    private volatile AddListener addListener;
+    private volatile Weigher weigher;
+    private boolean tracking;
+
+    public ChunkMobCounter(Spawner plugin) {
+        this.plugin = plugin;
+    }
+
+    public void register() {
+        try {
+            Class.forName("com.destroystokyo.paper.event.entity.EntityAddToWorldEvent");
+            Class.forName("com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent");
+            tracking = true;
+        } catch (ClassNotFoundException e) {
+            tracking = false;
+        }
+
+        if (tracking) {
+            Bukkit.getPluginManager().registerEvents(new WorldEvents(), plugin);
+        } else {
+            Bukkit.getPluginManager().registerEvents(new SpawnEvents(), plugin);
+            plugin.getLogger().info("Paper entity events are not available; mob limits scan chunks directly.");
+        }
+    }
+
+    public void start(int resyncChunksPerTick) {
+        this.resyncChunksPerTick = resyncChunksPerTick;
+        resyncQueue.clear();
+        if (!tracking) return;
+        scanLoadedChunks();
+
+        if (resyncChunksPerTick <= 0) return;
+        if (plugin.isFolia()) {
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (t) -> resyncTick(), 1L, 1L);
+        } else {
+            Bukkit.getScheduler().runTaskTimer(plugin, this::resyncTick, 1L, 1L);
+        }
+    }
+
+    public void setAddListener(AddListener addListener) {
+        this.addListener = addListener;
+    }
+
+    // A stacked mob counts as the number of mobs it stands for.
+    public void setWeigher(Weigher weigher) {
+        this.weigher = weigher;
+    }
+
+    public int weightOf(Entity entity) {
+        Weigher current = weigher;
+        return current != null ? current.weightOf(entity) : 1;
+    }
+
+    // Called when a tracked mob's weight changed without it being added or removed.
+    public void adjust(Entity entity, int delta) {
+        if (!tracking) return;
+        long home;
+        synchronized (homes) {
+            home = homes.get(entity.getEntityId());
+        }
+        if (home == UNTRACKED || delta == 0) return;
+
+        if (delta > 0) {
+            increment(home, entity.getType(), delta);
+            AddListener listener = addListener;
+            if (listener != null) {
+                listener.onMobAdded(home, entity.getType());
+            }
+        } else {
+            decrement(home, entity.getType(), -delta);
+        }
+    }
+
+    public int count(long chunkKey, EntityType type) {
+        if (!tracking) return scanCount(chunkKey, type);
+        AtomicIntegerArray array = counts.get(chunkKey);
+        return array != null ? array.get(type.ordinal()) : 0;
+    }
+
+    public int count(Chunk chunk, EntityType type) {
+        return count(ChunkKeys.of(chunk), type);
+    }
+
+    private void onAdded(Entity entity) {
+        if (!isCounted(entity)) return;
+        track(entity, ChunkKeys.of(entity.getLocation()));
+    }
+
+    private void onRemoved(Entity entity) {
+        if (!isCounted(entity)) return;
+
+        long home;
+        synchronized (homes) {
+            home = homes.remove(entity.getEntityId());
+            if (home != UNTRACKED) moveResident(entity.getEntityId(), home, UNTRACKED);
+        }
+        if (home != UNTRACKED) {
+            decrement(home, entity.getType(), weightOf(entity));
+        }
+    }
+
+    // Rebuilds the chunk's counts from its entities. Mobs found here are re-homed from wherever they were counted,
+    // and mobs counted here that left are dropped until the chunk they are in now is scanned.
+    public void scanChunk(Chunk chunk) {
+        long key = ChunkKeys.of(chunk);
+        int[] actual = new int[TYPE_COUNT];
+        IntSet present = new IntSet(16);
+        for (Entity entity : chunk.getEntities()) {
+            if (!isCounted(entity)) continue;
+            present.add(entity.getEntityId());
+            actual[entity.getType().ordinal()] += weightOf(entity);
+            track(entity, key);
+        }
+
+        synchronized (homes) {
+            IntSet here = residents.get(key);
+            if (here != null) {
+                for (int id : here.toArray()) {
+                    if (present.contains(id)) continue;
+                    homes.remove(id);
+                    here.remove(id);
+                }
+                if (here.isEmpty()) residents.remove(key);
+            }
+        }
+        overwrite(key, actual);
+    }
+
+    public void verify(CommandSender sender) {
+        if (!tracking) {
+            sender.sendMessage(getMessage("debug-mobcounter-untracked"));
+            return;
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                chunks.add(chunk);
+            }
+        }
+        if (chunks.isEmpty()) {
+            sender.sendMessage(getMessage("debug-mobcounter-no-chunks"));
+            return;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(chunks.size());
+        AtomicInteger mismatchedChunks = new AtomicInteger();
+        AtomicInteger countedMobs = new AtomicInteger();
+        AtomicInteger actualMobs = new AtomicInteger();
+
+        for (Chunk chunk : chunks) {
+            runAtChunk(chunk.getWorld(), chunk.getX(), chunk.getZ(), () -> {
+                if (chunk.isLoaded()) {
+                    int[] actual = new int[TYPE_COUNT];
+                    for (Entity entity : chunk.getEntities()) {
+                        if (isCounted(entity)) actual[entity.getType().ordinal()] += weightOf(entity);
+                    }
+
+                    AtomicIntegerArray counted = counts.get(ChunkKeys.of(chunk));
+                    boolean mismatch = false;
+                    for (int i = 0; i < TYPE_COUNT; i++) {
+                        int value = counted != null ? counted.get(i) : 0;
+                        countedMobs.addAndGet(value);
+                        actualMobs.addAndGet(actual[i]);
+                        if (value != actual[i]) mismatch = true;
+                    }
+                    if (mismatch) {
+                        mismatchedChunks.incrementAndGet();
+                        scanChunk(chunk);
+                    }
+                }
+
+                if (remaining.decrementAndGet() == 0) {
+                    sender.sendMessage(getMessage("debug-mobcounter-result")
+                            .replace("%chunks%", String.valueOf(chunks.size()))
+                            .replace("%mismatched%", String.valueOf(mismatchedChunks.get()))
+                            .replace("%counted%", String.valueOf(countedMobs.get()))
+                            .replace("%scanned%", String.valueOf(actualMobs.get())));
+                }
+            });
+        }
+    }
+
+    private String getMessage(String key) {
+        LanguageCache cache = plugin.getLanguageCache();
+        if (cache == null) return key;
+        return cache.text("prefix", "&8[&aSpawner&8] &r") + " " + cache.text("messages." + key, key);
+    }
+
+    private void scanLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                runAtChunk(world, chunk.getX(), chunk.getZ(), () -> {
+                    if (chunk.isLoaded()) scanChunk(chunk);
+                });
+            }
+        }
+    }
+
+    private void resyncTick() {
+        if (resyncQueue.isEmpty()) {
+            // Every loaded chunk, so mobs that wandered into a chunk without counts are found too.
+            Set<Long> keys = new LinkedHashSet<>();
+            for (World world : Bukkit.getWorlds()) {
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    keys.add(ChunkKeys.of(chunk));
+                }
+            }
+            keys.addAll(counts.keySet());
+            resyncQueue.addAll(keys);
+        }
+
+        for (int i = 0; i < resyncChunksPerTick; i++) {
+            Long key = resyncQueue.poll();
+            if (key == null) return;
+
+            World world = ChunkKeys.world(key);
+            if (world == null) {
+                dropChunk(key);
+                continue;
+            }
+
+            int x = ChunkKeys.chunkX(key);
+            int z = ChunkKeys.chunkZ(key);
+            runAtChunk(world, x, z, () -> {
+                if (world.isChunkLoaded(x, z)) {
+                    scanChunk(world.getChunkAt(x, z));
+                } else {
+                    dropChunk(key);
+                }
+            });
+        }
+    }
+
+    private void dropChunk(long chunkKey) {
+        counts.remove(chunkKey);
+        synchronized (homes) {
+            IntSet here = residents.remove(chunkKey);
+            if (here == null) return;
+            for (int id : here.toArray()) {
+                homes.remove(id);
+            }
+        }
+    }
+
+    // Callers hold the homes lock.
+    private void moveResident(int id, long from, long to) {
+        if (from != UNTRACKED) {
+            IntSet previous = residents.get(from);
+            if (previous != null && previous.remove(id) && previous.isEmpty()) {
+                residents.remove(from);
+            }
+        }
+        if (to != UNTRACKED) {
+            residents.computeIfAbsent(to, k -> new IntSet(16)).add(id);
+        }
+    }
+
+    private void overwrite(long chunkKey, int[] actual) {
+        int total = 0;
+        for (int value : actual) {
+            total += value;
+        }
+        if (total == 0) {
+            counts.remove(chunkKey);
+            return;
+        }
+
+        AtomicIntegerArray array = counts.computeIfAbsent(chunkKey, k -> new AtomicIntegerArray(TYPE_COUNT + 1));
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            array.set(i, actual[i]);
+        }
+        array.set(TOTAL_SLOT, total);
+    }
+
+    private int scanCount(long chunkKey, EntityType type) {
+        World world = ChunkKeys.world(chunkKey);
+        if (world == null) return 0;
+        int x = ChunkKeys.chunkX(chunkKey);
+        int z = ChunkKeys.chunkZ(chunkKey);
+        if (!world.isChunkLoaded(x, z)) return 0;
+
+        int total = 0;
+        for (Entity entity : world.getChunkAt(x, z).getEntities()) {
+            if (entity.getType() == type && isCounted(entity)) total += weightOf(entity);
+        }
+        return total;
+    }
+
+    private boolean track(Entity entity, long chunkKey) {
+        long previous;
+        synchronized (homes) {
+            previous = homes.put(entity.getEntityId(), chunkKey);
+            if (previous != chunkKey) moveResident(entity.getEntityId(), previous, chunkKey);
+        }
+        if (previous == chunkKey) return false;
+
+        int weight = weightOf(entity);
+        if (previous != UNTRACKED) {
+            decrement(previous, entity.getType(), weight);
+        }
+        increment(chunkKey, entity.getType(), weight);
+
+        AddListener listener = addListener;
+        if (listener != null) {
+            listener.onMobAdded(chunkKey, entity.getType());
+        }
+        return true;
+    }
+
+    private void increment(long chunkKey, EntityType type, int weight) {
+        AtomicIntegerArray array = counts.computeIfAbsent(chunkKey, k -> new AtomicIntegerArray(TYPE_COUNT + 1));
+        array.addAndGet(type.ordinal(), weight);
+        array.addAndGet(TOTAL_SLOT, weight);
+    }
+
+    private void decrement(long chunkKey, EntityType type, int weight) {
+        AtomicIntegerArray array = counts.get(chunkKey);
+        if (array == null) return;
+
+        int current = array.get(type.ordinal());
+        if (current > 0) {
+            array.addAndGet(type.ordinal(), -Math.min(weight, current));
+        }
+        if (array.addAndGet(TOTAL_SLOT, -weight) <= 0) {
+            counts.remove(chunkKey, array);
+        }
+    }
+
+    private void runAtChunk(World world, int x, int z, Runnable task) {
+        if (plugin.isFolia()) {
+            Bukkit.getRegionScheduler().execute(plugin, world, x, z, task);
+        } else {
+            task.run();
+        }
+    }
+
+    private static boolean isCounted(Entity entity) {
+        return entity instanceof LivingEntity && !(entity instanceof Player);
+    }
+
+    // Only loaded when the Paper events exist.
+    private final class WorldEvents implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onEntityAdd(EntityAddToWorldEvent event) {
+            onAdded(event.getEntity());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+            onRemoved(event.getEntity());
+        }
+    }
+
+    // Without counts, culling still has to hear about new mobs.
+    private final class SpawnEvents implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onCreatureSpawn(CreatureSpawnEvent event) {
+            AddListener listener = addListener;
+            if (listener != null && isCounted(event.getEntity())) {
+                listener.onMobAdded(ChunkKeys.of(event.getLocation()), event.getEntityType());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface AddListener {
+        void onMobAdded(long chunkKey, EntityType type);
+    }
+
+    @FunctionalInterface
+    public interface Weigher {
+        int weightOf(Entity entity);
+    }
+}
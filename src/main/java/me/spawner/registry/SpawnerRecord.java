@@ -0,0 +1,138 @@
+package me.spawner.registry;
+
+import me.spawner.Hologram;
+import me.spawner.loot.DropStorage;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SpawnerRecord {
+
+    public static final int AUTO_KILL = 1;
+    public static final int XP_COLLECT = 1 << 1;
+
+    private final long chunkKey;
+    private final int x;
+    private final int y;
+    private final int z;
+
+    private volatile EntityType type;
+    private volatile Hologram hologram;
+
+    // Cached copy of the spawner's persistent data, written back by SpawnerStateStore while dirty.
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+    private volatile int flags;
+    private volatile long managerMost;
+    private volatile long managerLeast;
+    private final AtomicInteger storedXp = new AtomicInteger();
+    private final AtomicBoolean journalQueued = new AtomicBoolean();
+    private volatile DropStorage storage = new DropStorage();
+    private volatile int stackSize = 1;
+
+    SpawnerRecord(long chunkKey, int x, int y, int z, EntityType type) {
+        this.chunkKey = chunkKey;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.type = type;
+    }
+
+    public long getChunkKey() { return chunkKey; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getZ() { return z; }
+
+    public EntityType getType() { return type; }
+    public void setType(EntityType type) { this.type = type; }
+
+    public Hologram getHologram() { return hologram; }
+    public void setHologram(Hologram hologram) { this.hologram = hologram; }
+
+    public boolean isLoaded() { return loaded; }
+    public boolean isDirty() { return dirty; }
+
+    public boolean hasFlag(int flag) { return (flags & flag) != 0; }
+
+    public void setFlag(int flag, boolean value) {
+        int next = value ? flags | flag : flags & ~flag;
+        if (next == flags) return;
+        flags = next;
+        dirty = true;
+    }
+
+    public boolean hasManager() { return managerMost != 0 || managerLeast != 0; }
+
+    public UUID getManager() {
+        return hasManager() ? new UUID(managerMost, managerLeast) : null;
+    }
+
+    public void setManager(UUID manager) {
+        managerMost = manager != null ? manager.getMostSignificantBits() : 0;
+        managerLeast = manager != null ? manager.getLeastSignificantBits() : 0;
+        dirty = true;
+    }
+
+    public int getStoredXp() { return storedXp.get(); }
+
+    int addStoredXp(int amount) {
+        int total = storedXp.addAndGet(amount);
+        dirty = true;
+        return total;
+    }
+
+    int takeStoredXp() {
+        int taken = storedXp.getAndSet(0);
+        if (taken != 0) dirty = true;
+        return taken;
+    }
+
+    void restoreStoredXp(int value) {
+        storedXp.set(value);
+        dirty = true;
+    }
+
+    public DropStorage getStorage() { return storage; }
+
+    public int getStackSize() { return stackSize; }
+
+    void setStackSize(int stackSize) {
+        this.stackSize = Math.max(1, stackSize);
+        dirty = true;
+    }
+
+    void markDirty() { dirty = true; }
+
+    boolean queueForJournal() { return journalQueued.compareAndSet(false, true); }
+    void dequeueFromJournal() { journalQueued.set(false); }
+
+    void load(int flags, UUID manager, int storedXp, DropStorage storage, int stackSize) {
+        this.flags = flags;
+        this.managerMost = manager != null ? manager.getMostSignificantBits() : 0;
+        this.managerLeast = manager != null ? manager.getLeastSignificantBits() : 0;
+        this.storedXp.set(storedXp);
+        this.storage = storage;
+        this.stackSize = Math.max(1, stackSize);
+        this.dirty = false;
+        this.loaded = true;
+    }
+
+    void markClean() { dirty = false; }
+
+    public World getWorld() {
+        return ChunkKeys.world(chunkKey);
+    }
+
+    public Location toLocation() {
+        World world = getWorld();
+        return world != null ? new Location(world, x, y, z) : null;
+    }
+
+    boolean isAt(int x, int y, int z) {
+        return this.x == x && this.y == y && this.z == z;
+    }
+}
@@ -0,0 +1,140 @@
+package me.spawner.registry;
+
+import org.bukkit.Location;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class SpawnerRegistry {
+
+    private final Map<Long, ChunkBucket> buckets = new ConcurrentHashMap<>();
+
+    public SpawnerRecord register(CreatureSpawner spawner) {
+        return register(spawner.getLocation(), spawner.getSpawnedType());
+    }
+
+    public SpawnerRecord register(Location loc, EntityType type) {
+        long key = ChunkKeys.of(loc);
+        ChunkBucket bucket = buckets.computeIfAbsent(key, k -> new ChunkBucket());
+        return bucket.getOrAdd(key, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), type);
+    }
+
+    public SpawnerRecord get(Location loc) {
+        ChunkBucket bucket = buckets.get(ChunkKeys.of(loc));
+        return bucket != null ? bucket.find(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()) : null;
+    }
+
+    public SpawnerRecord unregister(Location loc) {
+        long key = ChunkKeys.of(loc);
+        ChunkBucket bucket = buckets.get(key);
+        if (bucket == null) return null;
+
+        SpawnerRecord removed = bucket.remove(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        if (bucket.isEmpty()) {
+            buckets.remove(key, bucket);
+        }
+        return removed;
+    }
+
+    public List<SpawnerRecord> removeChunk(long chunkKey) {
+        ChunkBucket bucket = buckets.remove(chunkKey);
+        return bucket != null ? bucket.snapshot() : Collections.emptyList();
+    }
+
+    public List<SpawnerRecord> getChunk(long chunkKey) {
+        ChunkBucket bucket = buckets.get(chunkKey);
+        return bucket != null ? bucket.snapshot() : Collections.emptyList();
+    }
+
+    // Counts stacked spawners by their stack size.
+    public int countInChunk(Location exclude) {
+        ChunkBucket bucket = buckets.get(ChunkKeys.of(exclude));
+        if (bucket == null) return 0;
+        return bucket.countExcluding(exclude.getBlockX(), exclude.getBlockY(), exclude.getBlockZ());
+    }
+
+    public void forEach(Consumer<SpawnerRecord> action) {
+        for (ChunkBucket bucket : buckets.values()) {
+            bucket.snapshot().forEach(action);
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (ChunkBucket bucket : buckets.values()) {
+            total += bucket.size();
+        }
+        return total;
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    private static final class ChunkBucket {
+        private SpawnerRecord[] records = new SpawnerRecord[4];
+        private int size;
+
+        synchronized SpawnerRecord getOrAdd(long key, int x, int y, int z, EntityType type) {
+            SpawnerRecord existing = find(x, y, z);
+            if (existing != null) {
+                existing.setType(type);
+                return existing;
+            }
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            SpawnerRecord record = new SpawnerRecord(key, x, y, z, type);
+            records[size++] = record;
+            return record;
+        }
+
+        synchronized SpawnerRecord find(int x, int y, int z) {
+            for (int i = 0; i < size; i++) {
+                if (records[i].isAt(x, y, z)) return records[i];
+            }
+            return null;
+        }
+
+        synchronized SpawnerRecord remove(int x, int y, int z) {
+            for (int i = 0; i < size; i++) {
+                SpawnerRecord record = records[i];
+                if (record.isAt(x, y, z)) {
+                    records[i] = records[--size];
+                    records[size] = null;
+                    return record;
+                }
+            }
+            return null;
+        }
+
+        synchronized int countExcluding(int x, int y, int z) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (!records[i].isAt(x, y, z)) count += records[i].getStackSize();
+            }
+            return count;
+        }
+
+        synchronized List<SpawnerRecord> snapshot() {
+            List<SpawnerRecord> copy = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) copy.add(records[i]);
+            return copy;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package me.spawner.registry;
+
+import me.spawner.Spawner;
+import me.spawner.loot.DropStorage;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Keeps SpawnerRecord's cached menu state in sync with the spawner's PersistentDataContainer.
+// State is read once when the spawner is registered and only written back while it is dirty.
+public class SpawnerStateStore implements Listener {
+
+    // Folia has no WorldSaveEvent; its journal checkpoints are spaced well past a region autosave instead.
+    private static final long FOLIA_CHECKPOINT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final Spawner plugin;
+    private final SpawnerRegistry registry;
+    private final NamespacedKey autoKillKey;
+    private final NamespacedKey xpCollectKey;
+    private final NamespacedKey storedXpKey;
+    private final NamespacedKey managerKey;
+    private final NamespacedKey storageKey;
+    private final NamespacedKey stackKey;
+    private XpJournal journal;
+    private volatile long storageMaxItems = 100000;
+    private volatile int storageMaxTypes = 45;
+    private volatile long lastCheckpoint = System.currentTimeMillis();
+
+    public SpawnerStateStore(Spawner plugin, SpawnerRegistry registry) {
+        this.plugin = plugin;
+        this.registry = registry;
+        this.autoKillKey = new NamespacedKey(plugin, "auto_kill");
+        this.xpCollectKey = new NamespacedKey(plugin, "xp_collect");
+        this.storedXpKey = new NamespacedKey(plugin, "stored_xp");
+        this.managerKey = new NamespacedKey(plugin, "spawner_manager");
+        this.storageKey = new NamespacedKey(plugin, "drop_storage");
+        this.stackKey = new NamespacedKey(plugin, "stack_size");
+    }
+
+    public void setStorageLimits(long maxItems, int maxTypes) {
+        this.storageMaxItems = Math.max(0, maxItems);
+        this.storageMaxTypes = Math.max(1, Math.min(45, maxTypes));
+    }
+
+    public void start(int flushSeconds) {
+        if (flushSeconds <= 0) return;
+        long period = flushSeconds * 20L;
+        if (plugin.isFolia()) {
+            Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (t) -> flushDirty(), period, period);
+        } else {
+            Bukkit.getScheduler().runTaskTimer(plugin, this::flushDirty, period, period);
+        }
+    }
+
+    public void openJournal(long intervalMillis) {
+        if (journal == null) {
+            journal = new XpJournal(plugin, new File(plugin.getDataFolder(), "xp-journal"), intervalMillis);
+        }
+    }
+
+    public void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    public void addStoredXp(SpawnerRecord record, int amount) {
+        if (amount == 0) return;
+        record.addStoredXp(amount);
+        if (journal != null) journal.mark(record);
+    }
+
+    public int takeStoredXp(SpawnerRecord record) {
+        int taken = record.takeStoredXp();
+        if (taken != 0 && journal != null) journal.mark(record);
+        return taken;
+    }
+
+    // Returns how many did not fit into the spawner's storage.
+    public long addToStorage(SpawnerRecord record, Material material, long amount) {
+        long left = record.getStorage().add(material, amount, storageMaxItems, storageMaxTypes);
+        if (left != amount) record.markDirty();
+        return left;
+    }
+
+    public long takeFromStorage(SpawnerRecord record, Material material, long max) {
+        long taken = record.getStorage().take(material, max);
+        if (taken > 0) record.markDirty();
+        return taken;
+    }
+
+    public void setStackSize(SpawnerRecord record, int stackSize) {
+        record.setStackSize(stackSize);
+    }
+
+    // A new spawner starts from its own block, whatever was journaled for an earlier spawner at the same spot.
+    public void onPlaced(SpawnerRecord record, CreatureSpawner spawner) {
+        if (journal != null) journal.takeRecovered(spawner.getWorld(), record.getX(), record.getY(), record.getZ());
+        load(record, spawner);
+        if (journal != null) journal.mark(record);
+    }
+
+    // Runs after the chunk's spawners were loaded.
+    public void onChunkLoaded(World world, int chunkX, int chunkZ) {
+        if (journal != null) journal.dropRecovered(world, chunkX, chunkZ);
+    }
+
+    // A broken spawner's XP is gone; journal that so a later spawner at the same spot does not inherit it.
+    public void onRemoved(SpawnerRecord record) {
+        takeStoredXp(record);
+    }
+
+    @EventHandler
+    public void onWorldSave(WorldSaveEvent event) {
+        if (journal == null || plugin.isFolia()) return;
+
+        World world = event.getWorld();
+        registry.forEach(record -> {
+            if (record.getWorld() == world) save(record);
+        });
+        journal.checkpoint(world);
+    }
+
+    // Returns the record for a spawner, registering it and reading its state on first use.
+    public SpawnerRecord recordFor(CreatureSpawner spawner) {
+        SpawnerRecord record = registry.get(spawner.getLocation());
+        if (record == null) record = registry.register(spawner);
+        if (!record.isLoaded()) load(record, spawner);
+        return record;
+    }
+
+    public void load(SpawnerRecord record, CreatureSpawner spawner) {
+        PersistentDataContainer data = spawner.getPersistentDataContainer();
+        int flags = 0;
+        if (data.getOrDefault(autoKillKey, PersistentDataType.BOOLEAN, false)) flags |= SpawnerRecord.AUTO_KILL;
+        if (data.getOrDefault(xpCollectKey, PersistentDataType.BOOLEAN, false)) flags |= SpawnerRecord.XP_COLLECT;
+
+        UUID manager = null;
+        String managerText = data.get(managerKey, PersistentDataType.STRING);
+        if (managerText != null) {
+            try {
+                manager = UUID.fromString(managerText);
+            } catch (IllegalArgumentException e) {
+                // A broken manager id used to switch auto-kill off on the next spawn; do it once here instead.
+                flags = 0;
+            }
+        }
+
+        DropStorage storage = DropStorage.fromBytes(data.get(storageKey, PersistentDataType.BYTE_ARRAY));
+        record.load(flags, manager, data.getOrDefault(storedXpKey, PersistentDataType.INTEGER, 0), storage,
+                data.getOrDefault(stackKey, PersistentDataType.INTEGER, 1));
+        if (managerText != null && manager == null) record.setManager(null);
+
+        Integer journaled = journal != null ? journal.takeRecovered(spawner.getWorld(), record.getX(), record.getY(), record.getZ()) : null;
+        if (journaled != null && journaled != record.getStoredXp()) {
+            record.restoreStoredXp(journaled);
+            // Journaled again, so the value outlives the next checkpoint until the chunk was saved with it.
+            journal.mark(record);
+        }
+    }
+
+    // Must run on the thread that owns the spawner's chunk.
+    public void save(SpawnerRecord record) {
+        if (!record.isDirty()) return;
+        World world = record.getWorld();
+        if (world == null || !world.isChunkLoaded(record.getX() >> 4, record.getZ() >> 4)) return;
+
+        BlockState state = world.getBlockAt(record.getX(), record.getY(), record.getZ()).getState();
+        if (!(state instanceof CreatureSpawner spawner)) {
+            record.markClean();
+            return;
+        }
+
+        record.markClean();
+        PersistentDataContainer data = spawner.getPersistentDataContainer();
+        data.set(autoKillKey, PersistentDataType.BOOLEAN, record.hasFlag(SpawnerRecord.AUTO_KILL));
+        data.set(xpCollectKey, PersistentDataType.BOOLEAN, record.hasFlag(SpawnerRecord.XP_COLLECT));
+        data.set(storedXpKey, PersistentDataType.INTEGER, record.getStoredXp());
+        UUID manager = record.getManager();
+        if (manager != null) {
+            data.set(managerKey, PersistentDataType.STRING, manager.toString());
+        } else {
+            data.remove(managerKey);
+        }
+        DropStorage storage = record.getStorage();
+        if (storage.isEmpty()) {
+            data.remove(storageKey);
+        } else {
+            data.set(storageKey, PersistentDataType.BYTE_ARRAY, storage.toBytes());
+        }
+        if (record.getStackSize() > 1) {
+            data.set(stackKey, PersistentDataType.INTEGER, record.getStackSize());
+        } else {
+            data.remove(stackKey);
+        }
+        spawner.update(false, false);
+    }
+
+    public void saveAll(List<SpawnerRecord> records) {
+        for (SpawnerRecord record : records) {
+            save(record);
+        }
+    }
+
+    public void flushDirty() {
+        if (!plugin.isFolia()) {
+            registry.forEach(record -> {
+                if (record.isDirty()) save(record);
+            });
+            return;
+        }
+
+        List<SpawnerRecord> dirty = new ArrayList<>();
+        registry.forEach(record -> {
+            if (record.isDirty()) dirty.add(record);
+        });
+        long now = System.currentTimeMillis();
+        boolean checkpoint = journal != null && now - lastCheckpoint >= FOLIA_CHECKPOINT_MILLIS;
+        if (checkpoint) lastCheckpoint = now;
+
+        // The checkpoint waits until every dirty spawner was written to its block.
+        AtomicInteger remaining = new AtomicInteger(dirty.size() + 1);
+        Runnable done = () -> {
+            if (remaining.decrementAndGet() == 0 && checkpoint) checkpointAll();
+        };
+        for (SpawnerRecord record : dirty) {
+            Location loc = record.toLocation();
+            if (loc == null) {
+                done.run();
+                continue;
+            }
+            Bukkit.getRegionScheduler().execute(plugin, loc, () -> {
+                try {
+                    save(record);
+                } finally {
+                    done.run();
+                }
+            });
+        }
+        done.run();
+    }
+
+    private void checkpointAll() {
+        XpJournal current = journal;
+        if (current == null) return;
+        for (World world : Bukkit.getWorlds()) {
+            current.checkpoint(world);
+        }
+    }
+
+    // Used on shutdown, when region tasks can no longer be scheduled.
+    public void flushDirtyNow() {
+        registry.forEach(record -> {
+            try {
+                save(record);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Could not save spawner state at " + record.getX() + ", " + record.getY() + ", " + record.getZ() + ": " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,298 @@
+package me.spawner.registry;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Crash safety for stored XP that has not reached the spawner's PDC yet. Every change appends the spawner's
+// new absolute value to a per-world file, so replaying a journal is idempotent and the last entry wins.
+public class XpJournal {
+
+    private static final int ENTRY_SIZE = 16;
+    private static final long COMPACT_BYTES = 4L * 1024 * 1024;
+
+    private final JavaPlugin plugin;
+    private final File folder;
+    private final Queue<SpawnerRecord> queue = new ConcurrentLinkedQueue<>();
+    // Per world, then per chunk, so the leftovers of a chunk can be dropped once it was loaded.
+    private final Map<UUID, Map<Long, Map<Long, Integer>>> recovered = new ConcurrentHashMap<>();
+    private final Map<UUID, FileChannel> channels = new HashMap<>();
+    private final Map<UUID, Long> checkpoints = new HashMap<>();
+    private final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+    private final ScheduledExecutorService writer;
+
+    public XpJournal(JavaPlugin plugin, File folder, long intervalMillis) {
+        this.plugin = plugin;
+        this.folder = folder;
+        readExisting();
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SpawnerSystem-XpJournal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, intervalMillis);
+        writer.scheduleWithFixedDelay(this::writePendingSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void mark(SpawnerRecord record) {
+        if (record.queueForJournal()) queue.offer(record);
+    }
+
+    // Returns a value journaled before the last crash or shutdown for this spawner, if any.
+    public Integer takeRecovered(World world, int x, int y, int z) {
+        Map<Long, Map<Long, Integer>> chunks = recovered.get(world.getUID());
+        if (chunks == null) return null;
+        Map<Long, Integer> values = chunks.get(chunkKey(x >> 4, z >> 4));
+        if (values == null) return null;
+        Integer value = values.remove(blockKey(x, y, z));
+        if (values.isEmpty()) chunks.remove(chunkKey(x >> 4, z >> 4), values);
+        return value;
+    }
+
+    // Called after every spawner of a loaded chunk took its value; what is left belonged to spawners that are gone.
+    public void dropRecovered(World world, int chunkX, int chunkZ) {
+        Map<Long, Map<Long, Integer>> chunks = recovered.get(world.getUID());
+        if (chunks != null) chunks.remove(chunkKey(chunkX, chunkZ));
+    }
+
+    // Called once the world's dirty spawners were written to their PDC and the world is about to be saved. The chunks
+    // reach the disk only after this returns, so only entries from before the previous save are dropped; newer ones
+    // stay until the next save has certainly written them.
+    public synchronized void checkpoint(World world) {
+        writePending();
+        UUID uid = world.getUID();
+        closeChannel(uid);
+        File file = journalFile(uid);
+        Long previous = checkpoints.get(uid);
+        Map<Long, Integer> kept = read(file, previous != null ? previous : 0L);
+
+        // Values for spawners whose chunks were not loaded since the restart are still only in the journal.
+        Map<Long, Integer> values = new LinkedHashMap<>();
+        Map<Long, Map<Long, Integer>> pending = recovered.get(uid);
+        if (pending != null) pending.values().forEach(values::putAll);
+        values.putAll(kept);
+
+        if (values.isEmpty()) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not clear the XP journal of " + world.getName() + ": " + e.getMessage());
+                return;
+            }
+        } else if (!rewrite(uid, values)) {
+            return;
+        }
+        checkpoints.put(uid, file.length());
+    }
+
+    public synchronized void close() {
+        writer.shutdownNow();
+        writePending();
+        for (UUID uid : new HashSet<>(channels.keySet())) {
+            closeChannel(uid);
+        }
+    }
+
+    private void writePendingSafely() {
+        try {
+            synchronized (this) {
+                writePending();
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Could not write the XP journal: " + e.getMessage());
+        }
+    }
+
+    private void writePending() {
+        Set<UUID> touched = new HashSet<>();
+        SpawnerRecord record;
+        while ((record = queue.poll()) != null) {
+            // Dequeue before reading the value, so a change made meanwhile queues the record again.
+            record.dequeueFromJournal();
+            World world = record.getWorld();
+            if (world == null) continue;
+
+            UUID uid = world.getUID();
+            FileChannel channel = channel(uid);
+            if (channel == null) continue;
+            entry.clear();
+            entry.putInt(record.getX()).putInt(record.getY()).putInt(record.getZ()).putInt(record.getStoredXp()).flip();
+            try {
+                while (entry.hasRemaining()) {
+                    channel.write(entry);
+                }
+                touched.add(uid);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not write the XP journal: " + e.getMessage());
+            }
+        }
+
+        for (UUID uid : touched) {
+            FileChannel channel = channels.get(uid);
+            try {
+                channel.force(false);
+                if (channel.size() > COMPACT_BYTES) compact(uid);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not sync the XP journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // Keeps only the latest value per spawner when a journal grows without a world save clearing it.
+    private void compact(UUID uid) {
+        closeChannel(uid);
+        Map<Long, Integer> latest = read(journalFile(uid), 0L);
+        // Offsets move, so the next save keeps everything once more.
+        checkpoints.remove(uid);
+        rewrite(uid, latest);
+    }
+
+    private boolean rewrite(UUID uid, Map<Long, Integer> values) {
+        File file = journalFile(uid);
+        File temp = new File(folder, uid + ".bin.tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE * 256);
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<Long, Integer> value : values.entrySet()) {
+                if (buffer.remaining() < ENTRY_SIZE) drain(buffer, out);
+                long key = value.getKey();
+                buffer.putInt(blockX(key)).putInt(blockY(key)).putInt(blockZ(key)).putInt(value.getValue());
+            }
+            drain(buffer, out);
+            out.force(false);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not rewrite the XP journal: " + e.getMessage());
+            return false;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not rewrite the XP journal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void readExisting() {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null) return;
+
+        int restored = 0;
+        for (File file : files) {
+            UUID uid;
+            try {
+                uid = UUID.fromString(file.getName().substring(0, file.getName().length() - 4));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            Map<Long, Integer> values = read(file, 0L);
+            if (values.isEmpty()) continue;
+            Map<Long, Map<Long, Integer>> chunks = new ConcurrentHashMap<>();
+            for (Map.Entry<Long, Integer> value : values.entrySet()) {
+                long key = value.getKey();
+                chunks.computeIfAbsent(chunkKey(blockX(key) >> 4, blockZ(key) >> 4), k -> new ConcurrentHashMap<>())
+                        .put(key, value.getValue());
+            }
+            recovered.put(uid, chunks);
+            restored += values.size();
+        }
+        if (restored > 0) {
+            plugin.getLogger().info("Restoring stored XP of " + restored + " spawners from the XP journal.");
+        }
+    }
+
+    // Reads the entries written at or after the given byte offset.
+    private static Map<Long, Integer> read(File file, long from) {
+        Map<Long, Integer> values = new LinkedHashMap<>();
+        if (!file.exists()) return values;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            buffer.position((int) Math.min(buffer.limit(), from - from % ENTRY_SIZE));
+            // A torn final entry from a crash mid-write is ignored.
+            while (buffer.remaining() >= ENTRY_SIZE) {
+                long key = blockKey(buffer.getInt(), buffer.getInt(), buffer.getInt());
+                values.put(key, buffer.getInt());
+            }
+        } catch (IOException ignored) {
+        }
+        return values;
+    }
+
+    private FileChannel channel(UUID uid) {
+        FileChannel channel = channels.get(uid);
+        if (channel != null) return channel;
+        if (!folder.exists() && !folder.mkdirs()) {
+            plugin.getLogger().warning("XP journal folder could not be created!");
+            return null;
+        }
+        try {
+            channel = FileChannel.open(journalFile(uid).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not open the XP journal: " + e.getMessage());
+            return null;
+        }
+        channels.put(uid, channel);
+        return channel;
+    }
+
+    private void closeChannel(UUID uid) {
+        FileChannel channel = channels.remove(uid);
+        if (channel == null) return;
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private File journalFile(UUID uid) {
+        return new File(folder, uid + ".bin");
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int blockX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int blockY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    private static int blockZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+}
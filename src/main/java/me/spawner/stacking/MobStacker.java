@@ -0,0 +1,153 @@
+package me.spawner.stacking;
+
+import me.spawner.Spawner;
+import me.spawner.registry.SpawnerRecord;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.entity.Ageable;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.entity.Slime;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.SpawnerSpawnEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.material.Colorable;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.function.Consumer;
+
+// Spawner mobs merge into a nearby mob of the same type, which then stands for several of them.
+// The count lives in the mob's PDC; killing a stacked mob puts a copy with one less in its place.
+// The copy keeps the dead mob's age, size, color and equipment; other state (other variants, health,
+// potion effects) starts fresh. Stacks despawn like any other spawner mob despite their name.
+public class MobStacker implements Listener {
+
+    private final Spawner plugin;
+    private final NamespacedKey stackKey;
+    private volatile boolean enabled;
+    private volatile double mergeRadius = 4.0;
+    private volatile int maxStack = 64;
+
+    public MobStacker(Spawner plugin) {
+        this.plugin = plugin;
+        this.stackKey = new NamespacedKey(plugin, "mob_stack");
+    }
+
+    public void configure(boolean enabled, double mergeRadius, int maxStack) {
+        this.enabled = enabled;
+        this.mergeRadius = Math.max(0.5, mergeRadius);
+        this.maxStack = Math.max(1, maxStack);
+    }
+
+    // Stacks keep their weight even after stacking is turned off, so the counters stay right.
+    public int weightOf(Entity entity) {
+        Integer count = entity.getPersistentDataContainer().get(stackKey, PersistentDataType.INTEGER);
+        return count != null ? Math.max(1, count) : 1;
+    }
+
+    // Runs after the chunk limit check and before the auto-slayer.
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onSpawnerSpawn(SpawnerSpawnEvent event) {
+        if (!enabled || !(event.getEntity() instanceof LivingEntity spawned)) return;
+
+        CreatureSpawner spawner = event.getSpawner();
+        SpawnerRecord record = plugin.getSpawnerRegistry().get(spawner.getLocation());
+        if (record != null && record.hasFlag(SpawnerRecord.AUTO_KILL)) return;
+
+        LivingEntity stack = findStack(spawned);
+        if (stack == null) {
+            spawned.getPersistentDataContainer().set(stackKey, PersistentDataType.INTEGER, 1);
+            return;
+        }
+
+        event.setCancelled(true);
+        setCount(stack, weightOf(stack) + 1);
+        plugin.getMobCounter().adjust(stack, 1);
+        plugin.restartSpawnDelay(spawner);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityDeath(EntityDeathEvent event) {
+        LivingEntity dead = event.getEntity();
+        Integer count = dead.getPersistentDataContainer().get(stackKey, PersistentDataType.INTEGER);
+        if (count == null || count <= 1) return;
+
+        Class<? extends Entity> entityClass = dead.getType().getEntityClass();
+        if (entityClass == null) return;
+
+        int remaining = count - 1;
+        Location loc = dead.getLocation();
+        spawn(loc, entityClass, replacement -> {
+            PersistentDataContainer data = replacement.getPersistentDataContainer();
+            data.set(stackKey, PersistentDataType.INTEGER, remaining);
+            if (replacement instanceof LivingEntity living) {
+                copyState(dead, living);
+                plugin.nerfSpawnerMob(living);
+                setCount(living, remaining);
+            }
+        });
+    }
+
+    private static <T extends Entity> void spawn(Location loc, Class<T> entityClass, Consumer<Entity> setup) {
+        loc.getWorld().spawn(loc, entityClass, setup::accept, CreatureSpawnEvent.SpawnReason.SPAWNER);
+    }
+
+    private static void copyState(LivingEntity from, LivingEntity to) {
+        if (from instanceof Ageable source && to instanceof Ageable target) {
+            target.setAge(source.getAge());
+        }
+        if (from instanceof Slime source && to instanceof Slime target) {
+            target.setSize(source.getSize());
+        }
+        if (from instanceof Colorable source && to instanceof Colorable target) {
+            target.setColor(source.getColor());
+        }
+
+        EntityEquipment source = from.getEquipment();
+        EntityEquipment target = to.getEquipment();
+        if (source == null || target == null) return;
+        for (EquipmentSlot slot : EquipmentSlot.values()) {
+            target.setItem(slot, source.getItem(slot));
+            if (from instanceof Mob && to instanceof Mob) {
+                target.setDropChance(slot, source.getDropChance(slot));
+            }
+        }
+    }
+
+    private LivingEntity findStack(LivingEntity spawned) {
+        EntityType type = spawned.getType();
+        Location loc = spawned.getLocation();
+        double r = mergeRadius;
+        int max = maxStack;
+
+        for (Entity nearby : loc.getWorld().getNearbyEntities(loc, r, r, r, e -> e.getType() == type)) {
+            if (!(nearby instanceof LivingEntity living) || !living.isValid() || living.isDead()) continue;
+            Integer count = living.getPersistentDataContainer().get(stackKey, PersistentDataType.INTEGER);
+            if (count != null && count < max) return living;
+        }
+        return null;
+    }
+
+    private void setCount(LivingEntity entity, int count) {
+        entity.getPersistentDataContainer().set(stackKey, PersistentDataType.INTEGER, count);
+        if (count > 1) {
+            entity.setCustomName(ChatColor.YELLOW + "" + count + "x " + ChatColor.WHITE + plugin.getLanguageCache().entityName(entity.getType()));
+            entity.setCustomNameVisible(true);
+        } else {
+            entity.setCustomName(null);
+            entity.setCustomNameVisible(false);
+        }
+        // A custom name would otherwise keep the stack around forever.
+        entity.setRemoveWhenFarAway(true);
+    }
+}
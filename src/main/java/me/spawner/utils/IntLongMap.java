@@ -0,0 +1,161 @@
+package me.spawner.utils;
+
+import java.util.Arrays;
+
+public class IntLongMap {
+
+    private static final int FREE = 0;
+
+    private final long missingValue;
+    private int[] keys;
+    private long[] values;
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+    private int size;
+    private int mask;
+
+    public IntLongMap(int expectedSize, long missingValue) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2) - 1) << 1;
+        this.missingValue = missingValue;
+        this.keys = new int[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public long get(int key) {
+        if (key == FREE) return hasFreeKey ? freeKeyValue : missingValue;
+
+        int idx = mix(key) & mask;
+        while (true) {
+            int k = keys[idx];
+            if (k == FREE) return missingValue;
+            if (k == key) return values[idx];
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE) return hasFreeKey;
+
+        int idx = mix(key) & mask;
+        while (true) {
+            int k = keys[idx];
+            if (k == FREE) return false;
+            if (k == key) return true;
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public long put(int key, long value) {
+        if (key == FREE) {
+            long previous = hasFreeKey ? freeKeyValue : missingValue;
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return previous;
+        }
+
+        int idx = mix(key) & mask;
+        while (true) {
+            int k = keys[idx];
+            if (k == FREE) {
+                keys[idx] = key;
+                values[idx] = value;
+                if (++size * 2 > keys.length) rehash(keys.length * 2);
+                return missingValue;
+            }
+            if (k == key) {
+                long previous = values[idx];
+                values[idx] = value;
+                return previous;
+            }
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public long remove(int key) {
+        if (key == FREE) {
+            if (!hasFreeKey) return missingValue;
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+
+        int idx = mix(key) & mask;
+        while (true) {
+            int k = keys[idx];
+            if (k == FREE) return missingValue;
+            if (k == key) {
+                long previous = values[idx];
+                shiftKeys(idx);
+                size--;
+                return previous;
+            }
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    public void forEach(Entry consumer) {
+        if (hasFreeKey) consumer.accept(FREE, freeKeyValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            int k;
+            while (true) {
+                k = keys[pos];
+                if (k == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                int slot = mix(k) & mask;
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[newCapacity];
+        values = new long[newCapacity];
+        mask = newCapacity - 1;
+        size = hasFreeKey ? 1 : 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int mix(int x) {
+        int h = x * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(int key, long value);
+    }
+}
@@ -0,0 +1,124 @@
+package me.spawner.utils;
+
+public class IntSet {
+
+    private static final int FREE = 0;
+
+    private int[] keys;
+    private boolean hasFreeKey;
+    private int size;
+    private int mask;
+
+    public IntSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2) - 1) << 1;
+        this.keys = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public boolean contains(int key) {
+        if (key == FREE) return hasFreeKey;
+
+        int idx = mix(key) & mask;
+        while (true) {
+            int k = keys[idx];
+            if (k == FREE) return false;
+            if (k == key) return true;
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public boolean add(int key) {
+        if (key == FREE) {
+            if (hasFreeKey) return false;
+            hasFreeKey = true;
+            size++;
+            return true;
+        }
+
+        int idx = mix(key) & mask;
+        while (true) {
+            int k = keys[idx];
+            if (k == FREE) {
+                keys[idx] = key;
+                if (++size * 2 > keys.length) rehash(keys.length * 2);
+                return true;
+            }
+            if (k == key) return false;
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public boolean remove(int key) {
+        if (key == FREE) {
+            if (!hasFreeKey) return false;
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+
+        int idx = mix(key) & mask;
+        while (true) {
+            int k = keys[idx];
+            if (k == FREE) return false;
+            if (k == key) {
+                shiftKeys(idx);
+                size--;
+                return true;
+            }
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int n = 0;
+        if (hasFreeKey) result[n++] = FREE;
+        for (int k : keys) {
+            if (k != FREE) result[n++] = k;
+        }
+        return result;
+    }
+
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            int k;
+            while (true) {
+                k = keys[pos];
+                if (k == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                int slot = mix(k) & mask;
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        keys = new int[newCapacity];
+        mask = newCapacity - 1;
+        size = hasFreeKey ? 1 : 0;
+
+        for (int k : oldKeys) {
+            if (k != FREE) add(k);
+        }
+    }
+
+    private static int mix(int x) {
+        int h = x * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,8 +1,6 @@
 package me.spawner.utils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import me.spawner.Spawner;
 import org.bukkit.block.Block;
 import org.bukkit.block.CreatureSpawner;
@@ -10,37 +8,75 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 public class JsonLogger {
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
     private final Spawner plugin;
     private final Gson gson;
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    private final SimpleDateFormat fileDateFormat = new SimpleDateFormat("yyyy-MM-dd");
     private final File logsFolder;
     private final boolean logsEnabled;
+    private final boolean blockWhenFull;
+    private final long blockTimeoutMillis;
+    private final long fsyncIntervalNanos;
+    private final boolean fsyncEnabled;
+
+    private final Queue<LogEntry> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore capacity;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private final LogArchiver archiver;
+    private final LogIndex index;
+    private final LogQuery query;
+    private volatile boolean running = true;
+
+    private final Object fileLock = new Object();
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private FileChannel channel;
+    private LocalDate channelDay;
+    private long liveBase;
+    private long fileOffset;
+    private long lastForce;
+    private boolean unforced;
+    private long reportedDrops;
 
     private static final String RED = "\u001B[31m";
     private static final String RESET = "\u001B[0m";
 
     public JsonLogger(Spawner plugin) {
         this.plugin = plugin;
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.gson = new Gson();
         this.logsFolder = new File(plugin.getDataFolder(), "logs");
 
         plugin.getConfig().addDefault("logs-enabled", true);
         plugin.getConfig().options().copyDefaults(true);
         plugin.saveConfig();
-        
+
         this.logsEnabled = plugin.getConfig().getBoolean("logs-enabled");
+        this.capacity = new Semaphore(Math.max(1, plugin.getConfig().getInt("logs-queue-capacity", 4096)));
+        this.blockWhenFull = plugin.getConfig().getString("logs-queue-full-policy", "drop").equalsIgnoreCase("block");
+        this.blockTimeoutMillis = plugin.getConfig().getLong("logs-block-timeout-millis", 50);
+        long fsyncMillis = plugin.getConfig().getLong("logs-fsync-interval-millis", 1000);
+        this.fsyncEnabled = fsyncMillis >= 0;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, fsyncMillis));
 
         if (!logsFolder.exists()) {
             boolean created = logsFolder.mkdirs();
@@ -48,109 +84,279 @@ public class JsonLogger {
                 plugin.getLogger().severe(RED + "Logs folder could not be created! Check permissions." + RESET);
             }
         }
+
+        this.index = new LogIndex(logsFolder);
+        this.query = new LogQuery(plugin, index);
+        this.writer = new Thread(this::runWriter, "SpawnerSystem-LogWriter");
+        this.writer.setDaemon(true);
+        if (logsEnabled) {
+            this.writer.start();
+        }
+
+        this.archiver = logsEnabled && plugin.getConfig().getBoolean("logs-archive.enabled", true)
+                ? new LogArchiver(plugin, logsFolder, this) : null;
+    }
+
+    public File getLogsFolder() {
+        return logsFolder;
     }
 
-    public synchronized void log(Player player, Block block, String action) {
-        if (!logsEnabled) {
+    public LogQuery getQuery() {
+        return query;
+    }
+
+    public void log(Player player, Block block, String action) {
+        if (!logsEnabled || !running) {
             return;
         }
 
-        if (!(block.getState() instanceof CreatureSpawner)) {
+        if (!(block.getState() instanceof CreatureSpawner spawnerState)) {
             return;
         }
 
-        CreatureSpawner spawnerState = (CreatureSpawner) block.getState();
         EntityType type = spawnerState.getSpawnedType();
         String spawnerType = (type != null) ? type.name() : "UNKNOWN";
 
-        String world = block.getWorld().getName();
-        int x = block.getX();
-        int y = block.getY();
-        int z = block.getZ();
-
-        String platform = getClientType(player);
-
-        List<LogEntry> logs = readLogsForToday();
-        
         LogEntry entry = new LogEntry(
                 player.getName(),
-                dateFormat.format(new Date()),
-                platform,
+                System.currentTimeMillis(),
+                plugin.getPlatformResolver().get(player),
                 action,
                 spawnerType,
-                world,
-                x,
-                y,
-                z
+                block.getWorld().getName(),
+                block.getX(),
+                block.getY(),
+                block.getZ()
         );
-        
-        logs.add(entry);
-        writeLogsForToday(logs);
+
+        if (!acquire()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(entry);
+        LockSupport.unpark(writer);
     }
 
-    private String getClientType(Player player) {
+    public void close() {
+        if (!running) return;
+        running = false;
+        query.close();
+        if (archiver != null) {
+            archiver.close();
+        }
+        if (!writer.isAlive()) return;
+
+        LockSupport.unpark(writer);
         try {
-            Class<?> floodgateApi = Class.forName("org.geysermc.floodgate.api.FloodgateApi");
-            Object apiInstance = floodgateApi.getMethod("getInstance").invoke(null);
-            boolean isBedrock = (boolean) floodgateApi.getMethod("isFloodgatePlayer", java.util.UUID.class).invoke(apiInstance, player.getUniqueId());
-            if (isBedrock) {
-                return "Bedrock";
-            }
-        } catch (Exception e) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        if (writer.isAlive() || queue.isEmpty()) return;
+
+        // Entries offered while close() ran can reach the queue after the writer's last look.
+        finish();
+    }
+
+    // Runs the action while the writer cannot touch the day's file. Returns false without running it while the
+    // file is still open; entries that arrive for the day later go to a new file that is sealed on a later run.
+    boolean whileClosed(LocalDate day, FileAction action) throws IOException {
+        synchronized (fileLock) {
+            if (day.equals(channelDay)) return false;
+            action.run();
+            return true;
+        }
+    }
+
+    private boolean acquire() {
+        if (capacity.tryAcquire()) return true;
+        if (!blockWhenFull) return false;
 
         try {
-            Class<?> geyserApi = Class.forName("org.geysermc.geyser.api.GeyserApi");
-            Object apiInstance = geyserApi.getMethod("api").invoke(null);
-            boolean isBedrock = (boolean) geyserApi.getMethod("isBedrockPlayer", java.util.UUID.class).invoke(apiInstance, player.getUniqueId());
-            if (isBedrock) {
-                return "Bedrock";
+            return capacity.tryAcquire(blockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            int written;
+            synchronized (fileLock) {
+                written = drain(BATCH_SIZE);
+                if (written > 0) {
+                    flush();
+                } else {
+                    forceIfDue(true);
+                    if (channelDay != null && !channelDay.equals(LocalDate.now())) {
+                        // Release the finished day so the archiver can seal it.
+                        forceIfDue(false);
+                        closeChannel();
+                    }
+                }
+            }
+
+            if (written > 0) {
+                reportDrops();
+            } else if (running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
             }
-        } catch (Exception e) {
         }
+        finish();
+    }
 
-        return "Java";
+    private void finish() {
+        synchronized (fileLock) {
+            drain(Integer.MAX_VALUE);
+            flush();
+            forceIfDue(false);
+            closeChannel();
+        }
+        reportDrops();
     }
 
-    private File getTodayLogFile() {
-        String fileName = fileDateFormat.format(new Date()) + ".json";
-        return new File(logsFolder, fileName);
+    private int drain(int max) {
+        int written = 0;
+        LogEntry entry;
+        while (written < max && (entry = queue.poll()) != null) {
+            capacity.release();
+            append(entry);
+            written++;
+        }
+        return written;
     }
 
-    private List<LogEntry> readLogsForToday() {
-        File logFile = getTodayLogFile();
-        
-        if (!logFile.exists()) {
-            return new ArrayList<>();
+    private void append(LogEntry entry) {
+        Instant instant = Instant.ofEpochMilli(entry.timestamp);
+        entry.date = DATE_FORMAT.format(instant.atZone(ZoneId.systemDefault()));
+        LocalDate day = instant.atZone(ZoneId.systemDefault()).toLocalDate();
+
+        if (!day.equals(channelDay)) {
+            flush();
+            forceIfDue(false);
+            closeChannel();
+            openChannel(day);
         }
 
-        try (FileReader reader = new FileReader(logFile)) {
-            Type listType = new TypeToken<ArrayList<LogEntry>>() {}.getType();
-            List<LogEntry> logs = gson.fromJson(reader, listType);
-            
-            if (logs != null) {
-                return logs;
-            } else {
-                return new ArrayList<>();
+        byte[] line = (gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        if (line.length > buffer.remaining() || !index.hasRoom()) {
+            flush();
+        }
+        long offset = liveBase + fileOffset + buffer.position();
+        if (line.length > buffer.capacity()) {
+            if (writeFully(ByteBuffer.wrap(line))) {
+                index.append(entry.timestamp, entry.player, entry.action, entry.spawnerType, entry.world, entry.x, entry.y, entry.z, offset);
+                index.flush();
+            }
+            return;
+        }
+        buffer.put(line);
+        if (channel != null) {
+            index.append(entry.timestamp, entry.player, entry.action, entry.spawnerType, entry.world, entry.x, entry.y, entry.z, offset);
+        }
+    }
+
+    // Index records are only written once their lines are, so the index never describes lines the log does not have.
+    private void flush() {
+        if (buffer.position() == 0) return;
+        buffer.flip();
+        boolean written = writeFully(buffer);
+        buffer.clear();
+        if (written) {
+            index.flush();
+        } else {
+            index.discard();
+        }
+    }
+
+    private boolean writeFully(ByteBuffer data) {
+        if (channel == null) {
+            data.position(data.limit());
+            return false;
+        }
+        int length = data.remaining();
+        try {
+            while (data.hasRemaining()) {
+                channel.write(data);
             }
         } catch (IOException e) {
-            plugin.getLogger().severe(RED + "Could not read today's log file!" + RESET);
+            plugin.getLogger().severe(RED + "Could not write to today's log file!" + RESET);
             e.printStackTrace();
-            return new ArrayList<>();
+            data.position(data.limit());
+            // Cut a partly written batch off again, so the file keeps ending on a whole line.
+            try {
+                channel.truncate(fileOffset);
+            } catch (IOException ignored) {
+            }
+            return false;
         }
+        fileOffset += length;
+        unforced = true;
+        forceIfDue(true);
+        return true;
     }
 
-    private void writeLogsForToday(List<LogEntry> logs) {
-        File logFile = getTodayLogFile();
-        
-        try (FileWriter writer = new FileWriter(logFile)) {
-            gson.toJson(logs, writer);
+    // Several batches share one fsync: the channel is only forced once the interval has passed.
+    private void forceIfDue(boolean respectInterval) {
+        if (!fsyncEnabled || !unforced || channel == null) return;
+
+        long now = System.nanoTime();
+        if (respectInterval && now - lastForce < fsyncIntervalNanos) return;
+        try {
+            channel.force(false);
+            index.force();
         } catch (IOException e) {
-            plugin.getLogger().severe(RED + "Could not write to today's log file!" + RESET);
+            plugin.getLogger().severe(RED + "Could not sync the log file to disk!" + RESET);
+        }
+        lastForce = now;
+        unforced = false;
+    }
+
+    private void openChannel(LocalDate day) {
+        channelDay = day;
+        File logFile = new File(logsFolder, day + ".jsonl");
+        try {
+            channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            fileOffset = channel.size();
+        } catch (IOException e) {
+            plugin.getLogger().severe(RED + "Could not open today's log file!" + RESET);
             e.printStackTrace();
+            channel = null;
+            return;
+        }
+
+        try {
+            liveBase = index.open(day, fileOffset);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not open the log index for " + day + ": " + e.getMessage());
+            index.close();
         }
     }
 
+    private void closeChannel() {
+        index.close();
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+        channelDay = null;
+    }
+
+    private void reportDrops() {
+        long total = dropped.get();
+        if (total == reportedDrops) return;
+        plugin.getLogger().warning("Spawner log queue was full, " + (total - reportedDrops) + " log entries were dropped.");
+        reportedDrops = total;
+    }
+
+    @FunctionalInterface
+    interface FileAction {
+        void run() throws IOException;
+    }
+
     private static class LogEntry {
         String player;
         String date;
@@ -161,10 +367,11 @@ public class JsonLogger {
         int x;
         int y;
         int z;
+        transient long timestamp;
 
-        public LogEntry(String player, String date, String platform, String action, String spawnerType, String world, int x, int y, int z) {
+        public LogEntry(String player, long timestamp, String platform, String action, String spawnerType, String world, int x, int y, int z) {
             this.player = player;
-            this.date = date;
+            this.timestamp = timestamp;
             this.platform = platform;
             this.action = action;
             this.spawnerType = spawnerType;
@@ -174,4 +381,4 @@ public class JsonLogger {
             this.z = z;
         }
     }
-}
\ No newline at end of file
+}
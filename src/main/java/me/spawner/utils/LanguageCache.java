@@ -0,0 +1,69 @@
+package me.spawner.utils;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.EntityType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LanguageCache {
+
+    private static final String[] SPAWNER_PLACEHOLDERS = {"type", "mode", "status"};
+
+    private final FileConfiguration config;
+    private final Map<String, String> texts = new ConcurrentHashMap<>();
+    private final Map<String, List<MessageTemplate>> templateLists = new ConcurrentHashMap<>();
+    private final Map<Long, String> spawnerTexts = new ConcurrentHashMap<>();
+    private final List<MessageTemplate> spawnerLines;
+    private final String modeTag;
+    private final String canSpawn;
+    private final String cannotSpawn;
+
+    public LanguageCache(FileConfiguration config, String systemMode) {
+        this.config = config;
+        this.spawnerLines = MessageTemplate.compileAll(config.getStringList("spawnable-status"), true, SPAWNER_PLACEHOLDERS);
+        this.modeTag = text("mode-tags." + systemMode, "mode-tags." + systemMode);
+        this.canSpawn = text("can_spawn", "can_spawn");
+        this.cannotSpawn = text("cannot_spawn", "cannot_spawn");
+    }
+
+    public FileConfiguration getConfig() {
+        return config;
+    }
+
+    public String text(String path, String def) {
+        String cached = texts.get(path);
+        if (cached != null) return cached;
+
+        String colored = ColorUtils.color(config.getString(path, def));
+        texts.put(path, colored);
+        return colored;
+    }
+
+    public List<MessageTemplate> templates(String path, String... placeholders) {
+        return templateLists.computeIfAbsent(path, p -> MessageTemplate.compileAll(config.getStringList(p), true, placeholders));
+    }
+
+    public String entityName(EntityType type) {
+        if (type == null) return "Empty";
+        return text("entity-types." + type.name(), capitalize(type.name()));
+    }
+
+    public String spawnerText(EntityType type, boolean working, int stackSize) {
+        long key = ((long) stackSize << 32) | ((type != null ? type.ordinal() + 1 : 0) << 1) | (working ? 1 : 0);
+        String cached = spawnerTexts.get(key);
+        if (cached != null) return cached;
+
+        String typeName = stackSize > 1 ? stackSize + "x " + entityName(type) : entityName(type);
+        String rendered = MessageTemplate.renderLines(spawnerLines, "\n", typeName, modeTag, working ? canSpawn : cannotSpawn);
+        spawnerTexts.put(key, rendered);
+        return rendered;
+    }
+
+    private static String capitalize(String str) {
+        if (str == null || str.isEmpty()) return str;
+        String lower = str.toLowerCase();
+        return lower.substring(0, 1).toUpperCase() + lower.substring(1);
+    }
+}
@@ -0,0 +1,508 @@
+package me.spawner.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// A day's lines form one logical stream: its archive, then a legacy array file, then the live .jsonl file. Index
+// records point at byte offsets in that stream, and sealing keeps every offset where it was. Archives are written
+// as independent gzip members of about BLOCK_BYTES each, listed in a .blocks file, so a line can be read without
+// decompressing the whole day.
+public class LogArchiver {
+
+    private static final String LIVE_SUFFIX = ".jsonl";
+    private static final String LEGACY_SUFFIX = ".json";
+    private static final String ARCHIVE_SUFFIX = ".jsonl.gz";
+    private static final String BLOCKS_SUFFIX = ".jsonl.gz.blocks";
+    private static final int BLOCK_BYTES = 64 * 1024;
+    private static final long SETTLE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final JavaPlugin plugin;
+    private final File logsFolder;
+    private final File archiveFolder;
+    private final JsonLogger logger;
+    private final int maxAgeDays;
+    private final long maxTotalBytes;
+    private final ScheduledExecutorService scheduler;
+
+    public LogArchiver(JavaPlugin plugin, File logsFolder, JsonLogger logger) {
+        this.plugin = plugin;
+        this.logsFolder = logsFolder;
+        this.archiveFolder = new File(logsFolder, "archive");
+        this.logger = logger;
+        this.maxAgeDays = plugin.getConfig().getInt("logs-archive.max-age-days", 90);
+        this.maxTotalBytes = plugin.getConfig().getLong("logs-archive.max-total-size-mb", 512) * 1024L * 1024L;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SpawnerSystem-LogArchiver");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        long interval = Math.max(1, plugin.getConfig().getLong("logs-archive.interval-minutes", 60));
+        scheduler.scheduleWithFixedDelay(this::runSafely, 1, interval, TimeUnit.MINUTES);
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    public static void forEachLine(File logsFolder, LocalDate day, Consumer<String> action) throws IOException {
+        visitLines(logsFolder, day, true, line -> {
+            action.accept(line);
+            return true;
+        });
+    }
+
+    // Lines of the archive and legacy file only, which come before the live file in the day's stream.
+    public static void forEachArchivedLine(File logsFolder, LocalDate day, Consumer<String> action) throws IOException {
+        visitLines(logsFolder, day, false, line -> {
+            action.accept(line);
+            return true;
+        });
+    }
+
+    // Stream length of the archive and legacy parts, read from the block table; null when that needs a full read.
+    public static Long archivedLength(File logsFolder, LocalDate day) {
+        if (new File(logsFolder, day + LEGACY_SUFFIX).exists()) return null;
+        File archive = new File(new File(logsFolder, "archive"), day + ARCHIVE_SUFFIX);
+        if (!archive.exists()) return 0L;
+        BlockTable table = BlockTable.read(blocksFile(logsFolder, day), archive.length());
+        return table != null ? table.total : null;
+    }
+
+    // Reads the lines starting at the given stream offsets (sorted ascending).
+    public static Map<Long, String> readLinesAt(File logsFolder, LocalDate day, long[] offsets) throws IOException {
+        Map<Long, String> lines = new HashMap<>();
+        if (offsets.length == 0) return lines;
+
+        Long archived = archivedLength(logsFolder, day);
+        if (archived == null) {
+            // Legacy file or an archive without a usable block table: stream, but stop after the last wanted line.
+            long last = offsets[offsets.length - 1];
+            long[] position = {0};
+            visitLines(logsFolder, day, true, line -> {
+                long start = position[0];
+                if (Arrays.binarySearch(offsets, start) >= 0) lines.put(start, line);
+                position[0] += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                return position[0] <= last;
+            });
+            return lines;
+        }
+
+        File archive = new File(new File(logsFolder, "archive"), day + ARCHIVE_SUFFIX);
+        BlockTable table = archived > 0 ? BlockTable.read(blocksFile(logsFolder, day), archive.length()) : null;
+        int i = 0;
+        while (i < offsets.length && offsets[i] < archived && table != null) {
+            int block = table.blockOf(offsets[i]);
+            long blockStart = table.uncompressed[block];
+            long blockEnd = block + 1 < table.uncompressed.length ? table.uncompressed[block + 1] : table.total;
+            try (FileChannel channel = FileChannel.open(archive.toPath(), StandardOpenOption.READ)) {
+                channel.position(table.compressed[block]);
+                InputStream in = new BufferedInputStream(new GZIPInputStream(Channels.newInputStream(channel), 8 * 1024));
+                long position = blockStart;
+                while (i < offsets.length && offsets[i] < blockEnd) {
+                    skipFully(in, offsets[i] - position);
+                    byte[] line = readLine(in);
+                    lines.put(offsets[i], new String(line, StandardCharsets.UTF_8));
+                    position = offsets[i] + line.length + 1;
+                    i++;
+                }
+            }
+        }
+
+        File live = new File(logsFolder, day + LIVE_SUFFIX);
+        if (i < offsets.length && live.exists()) {
+            try (FileChannel channel = FileChannel.open(live.toPath(), StandardOpenOption.READ)) {
+                for (; i < offsets.length; i++) {
+                    if (offsets[i] < archived) continue;
+                    String line = readLineAt(channel, offsets[i] - archived);
+                    if (line != null) lines.put(offsets[i], line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static boolean visitLines(File logsFolder, LocalDate day, boolean includeLive, Predicate<String> action) throws IOException {
+        File archive = new File(new File(logsFolder, "archive"), day + ARCHIVE_SUFFIX);
+        if (archive.exists()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new FileInputStream(archive), 64 * 1024), StandardCharsets.UTF_8))) {
+                if (!readLines(reader, action)) return false;
+            }
+        }
+
+        File legacy = new File(logsFolder, day + LEGACY_SUFFIX);
+        if (legacy.exists()) {
+            try (Reader reader = Files.newBufferedReader(legacy.toPath(), StandardCharsets.UTF_8)) {
+                if (!readLegacyArray(reader, element -> action.test(element.toString()))) return false;
+            }
+        }
+
+        File live = new File(logsFolder, day + LIVE_SUFFIX);
+        if (includeLive && live.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(live.toPath(), StandardCharsets.UTF_8)) {
+                return readLines(reader, action);
+            }
+        }
+        return true;
+    }
+
+    private void runSafely() {
+        try {
+            sealFinishedDays();
+            enforceRetention();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Log archiving failed: " + e.getMessage());
+        }
+    }
+
+    private void sealFinishedDays() throws IOException {
+        File[] files = logsFolder.listFiles(File::isFile);
+        if (files == null) return;
+
+        LocalDate today = LocalDate.now();
+        long settledBefore = System.currentTimeMillis() - SETTLE_MILLIS;
+        TreeMap<LocalDate, List<File>> days = new TreeMap<>();
+        for (File file : files) {
+            LocalDate day = dayOf(file.getName());
+            if (day == null || !day.isBefore(today) || file.lastModified() > settledBefore) continue;
+            days.computeIfAbsent(day, d -> new ArrayList<>()).add(file);
+        }
+        if (days.isEmpty()) return;
+
+        if (!archiveFolder.exists() && !archiveFolder.mkdirs()) {
+            plugin.getLogger().warning("Log archive folder could not be created!");
+            return;
+        }
+
+        for (List<File> sources : days.values()) {
+            // Legacy arrays sort before the .jsonl file of the same day, so entries stay in write order.
+            sources.sort((a, b) -> Boolean.compare(a.getName().endsWith(LIVE_SUFFIX), b.getName().endsWith(LIVE_SUFFIX)));
+            LocalDate day = dayOf(sources.get(0).getName());
+            // Sealed only while the logger has the day's file closed, so nothing is appended between copy and delete.
+            logger.whileClosed(day, () -> seal(day, sources));
+        }
+    }
+
+    private void seal(LocalDate day, List<File> sources) throws IOException {
+        File archive = new File(archiveFolder, day + ARCHIVE_SUFFIX);
+        File temp = new File(archiveFolder, day + ARCHIVE_SUFFIX + ".tmp");
+        File blocks = blocksFile(logsFolder, day);
+
+        // A day that was already archived gets more gzip members appended; readers see one continuous stream.
+        BlockTable previous = null;
+        if (archive.exists()) {
+            previous = BlockTable.read(blocks, archive.length());
+            Files.copy(archive.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            previous = BlockTable.EMPTY;
+            Files.deleteIfExists(temp.toPath());
+        }
+
+        BlockWriter writer;
+        try (FileOutputStream out = new FileOutputStream(temp, true)) {
+            writer = new BlockWriter(out, previous != null ? previous.total : 0);
+            for (File source : sources) {
+                if (source.getName().endsWith(LIVE_SUFFIX)) {
+                    try (BufferedReader reader = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8)) {
+                        readLines(reader, line -> writeLine(writer, line));
+                    }
+                } else {
+                    try (Reader reader = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8)) {
+                        readLegacyArray(reader, element -> writeLine(writer, element.toString()));
+                    }
+                }
+            }
+            writer.endBlock();
+        } catch (UncheckedWriteException e) {
+            Files.deleteIfExists(temp.toPath());
+            throw e.getCause();
+        }
+
+        Files.move(temp.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // Without a table for the earlier members, offsets in this archive can only be found by streaming it.
+        if (previous != null) {
+            previous.append(writer.compressedStarts, writer.uncompressedStarts, writer.uncompressed, archive.length()).write(blocks);
+        } else {
+            Files.deleteIfExists(blocks.toPath());
+        }
+        for (File source : sources) {
+            Files.deleteIfExists(source.toPath());
+        }
+    }
+
+    private void enforceRetention() throws IOException {
+        File[] archives = archiveFolder.listFiles((dir, name) -> name.endsWith(ARCHIVE_SUFFIX));
+        if (archives == null || archives.length == 0) return;
+
+        TreeMap<LocalDate, File> byDay = new TreeMap<>();
+        long totalBytes = 0;
+        for (File archive : archives) {
+            LocalDate day = dayOf(archive.getName());
+            if (day == null) continue;
+            byDay.put(day, archive);
+            totalBytes += archive.length();
+        }
+
+        LocalDate oldestKept = maxAgeDays > 0 ? LocalDate.now().minusDays(maxAgeDays) : null;
+        while (!byDay.isEmpty()) {
+            LocalDate oldest = byDay.firstKey();
+            boolean tooOld = oldestKept != null && oldest.isBefore(oldestKept);
+            boolean tooLarge = maxTotalBytes > 0 && totalBytes > maxTotalBytes;
+            if (!tooOld && !tooLarge) break;
+
+            File archive = byDay.remove(oldest);
+            totalBytes -= archive.length();
+            Files.deleteIfExists(archive.toPath());
+            Files.deleteIfExists(blocksFile(logsFolder, oldest).toPath());
+            Files.deleteIfExists(LogIndex.indexFile(logsFolder, oldest).toPath());
+        }
+    }
+
+    private static boolean readLines(BufferedReader reader, Predicate<String> action) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty() && !action.test(line)) return false;
+        }
+        return true;
+    }
+
+    private static boolean readLegacyArray(Reader source, Predicate<JsonElement> action) throws IOException {
+        JsonReader reader = new JsonReader(source);
+        try {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) return true;
+        } catch (EOFException e) {
+            return true;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (!action.test(JsonParser.parseReader(reader))) return false;
+        }
+        reader.endArray();
+        return true;
+    }
+
+    private static boolean writeLine(BlockWriter writer, String line) {
+        try {
+            writer.writeLine(line);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedWriteException(e);
+        }
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new EOFException("Log archive ended early");
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    private static byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n') {
+            line.write(b);
+        }
+        return line.toByteArray();
+    }
+
+    private static String readLineAt(FileChannel channel, long position) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        ByteBuffer chunk = ByteBuffer.allocate(1024);
+        while (true) {
+            chunk.clear();
+            int read = channel.read(chunk, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                byte b = chunk.get(i);
+                if (b == '\n') return line.toString(StandardCharsets.UTF_8);
+                line.write(b);
+            }
+            position += read;
+        }
+        return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+    }
+
+    private static File blocksFile(File logsFolder, LocalDate day) {
+        return new File(new File(logsFolder, "archive"), day + BLOCKS_SUFFIX);
+    }
+
+    static LocalDate dayOf(String fileName) {
+        if (fileName.length() < 10) return null;
+        String rest = fileName.substring(10);
+        if (!rest.equals(LIVE_SUFFIX) && !rest.equals(LEGACY_SUFFIX) && !rest.equals(ARCHIVE_SUFFIX)) return null;
+        try {
+            return LocalDate.parse(fileName.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Starts a new gzip member every BLOCK_BYTES of lines, always at a line boundary.
+    private static final class BlockWriter {
+        private final FileOutputStream out;
+        private final List<Long> compressedStarts = new ArrayList<>();
+        private final List<Long> uncompressedStarts = new ArrayList<>();
+        private GZIPOutputStream gzip;
+        private long blockBytes;
+        private long uncompressed;
+
+        BlockWriter(FileOutputStream out, long uncompressed) {
+            this.out = out;
+            this.uncompressed = uncompressed;
+        }
+
+        void writeLine(String line) throws IOException {
+            if (gzip == null) {
+                compressedStarts.add(out.getChannel().position());
+                uncompressedStarts.add(uncompressed);
+                gzip = new GZIPOutputStream(new FilterOutputStream(out) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                }, 64 * 1024);
+            }
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            gzip.write(bytes);
+            blockBytes += bytes.length;
+            uncompressed += bytes.length;
+            if (blockBytes >= BLOCK_BYTES) endBlock();
+        }
+
+        void endBlock() throws IOException {
+            if (gzip == null) return;
+            // Writes the member's trailer and frees the deflater; the file itself stays open.
+            gzip.close();
+            gzip = null;
+            blockBytes = 0;
+        }
+    }
+
+    // Where each gzip member starts, compressed and in the day's stream. Only trusted while the archive still has
+    // the length it had when the table was written.
+    private static final class BlockTable {
+        static final BlockTable EMPTY = new BlockTable(new long[0], new long[0], 0, 0);
+
+        final long[] compressed;
+        final long[] uncompressed;
+        final long total;
+        final long archiveLength;
+
+        BlockTable(long[] compressed, long[] uncompressed, long total, long archiveLength) {
+            this.compressed = compressed;
+            this.uncompressed = uncompressed;
+            this.total = total;
+            this.archiveLength = archiveLength;
+        }
+
+        int blockOf(long offset) {
+            int i = Arrays.binarySearch(uncompressed, offset);
+            return i >= 0 ? i : Math.max(0, -i - 2);
+        }
+
+        BlockTable append(List<Long> compressedStarts, List<Long> uncompressedStarts, long total, long archiveLength) {
+            int size = compressed.length + compressedStarts.size();
+            long[] c = Arrays.copyOf(compressed, size);
+            long[] u = Arrays.copyOf(uncompressed, size);
+            for (int i = 0; i < compressedStarts.size(); i++) {
+                c[compressed.length + i] = compressedStarts.get(i);
+                u[compressed.length + i] = uncompressedStarts.get(i);
+            }
+            return new BlockTable(c, u, total, archiveLength);
+        }
+
+        static BlockTable read(File file, long archiveLength) {
+            if (!file.exists()) return null;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+                if (buffer.remaining() < 20) return null;
+                long length = buffer.getLong();
+                long total = buffer.getLong();
+                int count = buffer.getInt();
+                if (length != archiveLength || count < 0 || buffer.remaining() < count * 16L) return null;
+                long[] c = new long[count];
+                long[] u = new long[count];
+                for (int i = 0; i < count; i++) {
+                    c[i] = buffer.getLong();
+                    u[i] = buffer.getLong();
+                }
+                return new BlockTable(c, u, total, length);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        void write(File file) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(20 + compressed.length * 16);
+            buffer.putLong(archiveLength).putLong(total).putInt(compressed.length);
+            for (int i = 0; i < compressed.length; i++) {
+                buffer.putLong(compressed[i]).putLong(uncompressed[i]);
+            }
+            File temp = new File(file.getPath() + ".tmp");
+            Files.write(temp.toPath(), buffer.array());
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static final class UncheckedWriteException extends RuntimeException {
+        UncheckedWriteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
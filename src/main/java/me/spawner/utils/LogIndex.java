@@ -0,0 +1,428 @@
+package me.spawner.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One fixed-size record per log line; record n of a day always describes line n of LogArchiver.forEachLine for that day
+// and holds that line's offset in the day's stream, so queries can read just the lines they need.
+public class LogIndex {
+
+    static final int RECORD_SIZE = 40;
+    static final byte ACTION_OTHER = 0;
+    static final byte ACTION_PLACED = 1;
+    static final byte ACTION_BROKE = 2;
+
+    private static final int MAX_TAIL_BYTES = 1024 * 1024;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final File logsFolder;
+    private final File indexFolder;
+    private final Map<LocalDate, DaySummary> summaries = new ConcurrentHashMap<>();
+
+    private final ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * 512);
+    private FileChannel channel;
+
+    public LogIndex(File logsFolder) {
+        this.logsFolder = logsFolder;
+        this.indexFolder = new File(logsFolder, "index");
+    }
+
+    public static int hash(String value) {
+        return value != null ? value.toLowerCase().hashCode() : 0;
+    }
+
+    public static byte actionCode(String action) {
+        if ("PLACED".equalsIgnoreCase(action)) return ACTION_PLACED;
+        if ("BROKE".equalsIgnoreCase(action)) return ACTION_BROKE;
+        return ACTION_OTHER;
+    }
+
+    public File getLogsFolder() {
+        return logsFolder;
+    }
+
+    File indexFile(LocalDate day) {
+        return indexFile(logsFolder, day);
+    }
+
+    static File indexFile(File logsFolder, LocalDate day) {
+        return new File(new File(logsFolder, "index"), day + ".idx");
+    }
+
+    // Writer side, only called from the JsonLogger writer thread.
+
+    // Returns the stream offset at which the day's live file starts.
+    long open(LocalDate day, long liveSize) throws IOException {
+        close();
+        if (!indexFolder.exists() && !indexFolder.mkdirs()) {
+            throw new IOException("Index folder could not be created");
+        }
+        long liveBase = liveBase(day);
+        synchronized (this) {
+            if (!matchesTail(day, liveBase, liveSize)) rebuild(day);
+        }
+        channel = FileChannel.open(indexFile(day).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return liveBase;
+    }
+
+    // The logger flushes its own buffer first once this is false, so records never reach the disk before their lines.
+    boolean hasRoom() {
+        return pending.remaining() >= RECORD_SIZE;
+    }
+
+    void append(long timestamp, String player, String action, String spawnerType, String world, int x, int y, int z, long offset) {
+        if (channel == null || !hasRoom()) return;
+        writeRecord(pending, timestamp, hash(player), actionCode(action), hash(spawnerType), hash(world), x, y, z, offset);
+    }
+
+    // Drops the records of lines that could not be written.
+    void discard() {
+        pending.clear();
+    }
+
+    private long liveBase(LocalDate day) throws IOException {
+        Long known = LogArchiver.archivedLength(logsFolder, day);
+        if (known != null) return known;
+        long[] length = {0};
+        LogArchiver.forEachArchivedLine(logsFolder, day, line -> length[0] += line.getBytes(StandardCharsets.UTF_8).length + 1);
+        return length[0];
+    }
+
+    void flush() {
+        if (pending.position() == 0 || channel == null) {
+            pending.clear();
+            return;
+        }
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+        } catch (IOException ignored) {
+        }
+        pending.clear();
+    }
+
+    void force() throws IOException {
+        if (channel != null) channel.force(false);
+    }
+
+    void close() {
+        flush();
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+
+    // Query side.
+
+    public boolean hasData(LocalDate day) {
+        return indexFile(day).exists()
+                || new File(logsFolder, day + ".jsonl").exists()
+                || new File(logsFolder, day + ".json").exists()
+                || new File(new File(logsFolder, "archive"), day + ".jsonl.gz").exists();
+    }
+
+    public synchronized void ensureIndexed(LocalDate day) throws IOException {
+        if (indexFile(day).exists()) return;
+
+        boolean[] any = {false};
+        LogArchiver.forEachLine(logsFolder, day, line -> any[0] = true);
+        if (any[0]) rebuild(day);
+    }
+
+    public DaySummary summary(LocalDate day) throws IOException {
+        File file = indexFile(day);
+        long length = file.exists() ? file.length() : 0;
+        DaySummary cached = summaries.get(day);
+        if (cached != null && cached.length == length) return cached;
+
+        DaySummary summary = DaySummary.build(readRecords(day), length);
+        summaries.put(day, summary);
+        return summary;
+    }
+
+    public long recordCount(LocalDate day) {
+        File file = indexFile(day);
+        return file.exists() ? file.length() / RECORD_SIZE : 0;
+    }
+
+    // Reads `count` records starting at record `first`; record i of the result is record first + i of the day.
+    public ByteBuffer readRecords(LocalDate day, long first, int count) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE);
+        try (FileChannel in = FileChannel.open(indexFile(day).toPath(), StandardOpenOption.READ)) {
+            long position = first * RECORD_SIZE;
+            while (records.hasRemaining()) {
+                int read = in.read(records, position + records.position());
+                if (read < 0) break;
+            }
+        }
+        records.flip();
+        int usable = records.limit() - records.limit() % RECORD_SIZE;
+        return records.limit(usable).slice();
+    }
+
+    public ByteBuffer readRecords(LocalDate day) throws IOException {
+        File file = indexFile(day);
+        if (!file.exists()) return ByteBuffer.allocate(0);
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int usable = bytes.length - bytes.length % RECORD_SIZE;
+        return ByteBuffer.wrap(bytes, 0, usable).slice();
+    }
+
+    public void forget(LocalDate day) {
+        summaries.remove(day);
+    }
+
+    // Cheap check run when the writer opens a day: the last record has to point at the last line of the live file,
+    // so lines written without their records (a crash between the two) are caught without reading the whole day.
+    private boolean matchesTail(LocalDate day, long liveBase, long liveSize) throws IOException {
+        File file = indexFile(day);
+        long length = file.exists() ? file.length() : 0;
+        if (length % RECORD_SIZE != 0) return false;
+        if (length == 0) return liveBase + liveSize == 0;
+
+        ByteBuffer last = ByteBuffer.allocate(RECORD_SIZE);
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (last.hasRemaining()) {
+                if (in.read(last, length - RECORD_SIZE + last.position()) < 0) return false;
+            }
+        }
+        long lastOffset = offset(last, 0);
+        if (lastOffset < liveBase) return liveSize == 0;
+
+        long lineLength = liveBase + liveSize - lastOffset;
+        if (lineLength <= 0 || lineLength > MAX_TAIL_BYTES) return false;
+        ByteBuffer tail = ByteBuffer.allocate((int) lineLength);
+        try (FileChannel in = FileChannel.open(new File(logsFolder, day + ".jsonl").toPath(), StandardOpenOption.READ)) {
+            while (tail.hasRemaining()) {
+                if (in.read(tail, lastOffset - liveBase + tail.position()) < 0) return false;
+            }
+        }
+        for (int i = 0; i < tail.limit() - 1; i++) {
+            if (tail.get(i) == '\n') return false;
+        }
+        return tail.get(tail.limit() - 1) == '\n';
+    }
+
+    private void rebuild(LocalDate day) throws IOException {
+        File file = indexFile(day);
+        File temp = new File(indexFolder, day + ".idx.tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 512);
+
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            IOException[] failure = new IOException[1];
+            long[] offset = {0};
+            LogArchiver.forEachLine(logsFolder, day, line -> {
+                if (failure[0] != null) return;
+                try {
+                    if (buffer.remaining() < RECORD_SIZE) drain(buffer, out);
+                    indexLine(buffer, line, offset[0]);
+                    offset[0] += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+            drain(buffer, out);
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        summaries.remove(day);
+    }
+
+    private static void indexLine(ByteBuffer buffer, String line, long offset) {
+        long timestamp = 0;
+        String player = null, action = null, type = null, world = null;
+        int x = 0, y = 0, z = 0;
+        try {
+            JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+            player = string(json, "player");
+            action = string(json, "action");
+            type = string(json, "spawnerType");
+            world = string(json, "world");
+            x = json.has("x") ? json.get("x").getAsInt() : 0;
+            y = json.has("y") ? json.get("y").getAsInt() : 0;
+            z = json.has("z") ? json.get("z").getAsInt() : 0;
+            String date = string(json, "date");
+            if (date != null) {
+                timestamp = LocalDateTime.parse(date, DATE_FORMAT).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+        } catch (RuntimeException ignored) {
+            // Unreadable lines still get a record so record n keeps matching line n.
+        }
+        writeRecord(buffer, timestamp, hash(player), actionCode(action), hash(type), hash(world), x, y, z, offset);
+    }
+
+    private static String string(JsonObject json, String key) {
+        return json.has(key) && !json.get(key).isJsonNull() ? json.get(key).getAsString() : null;
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void writeRecord(ByteBuffer buffer, long timestamp, int player, byte action, int type, int world, int x, int y, int z, long offset) {
+        buffer.putLong(timestamp);
+        buffer.putInt(player);
+        buffer.putInt(world);
+        buffer.putInt(type);
+        buffer.putInt(x);
+        buffer.putInt(z);
+        buffer.putShort((short) y);
+        buffer.put(action);
+        buffer.put((byte) 0);
+        buffer.putLong(offset);
+    }
+
+    static long timestamp(ByteBuffer records, int index) {
+        return records.getLong(index * RECORD_SIZE);
+    }
+
+    static int player(ByteBuffer records, int index) {
+        return records.getInt(index * RECORD_SIZE + 8);
+    }
+
+    static int world(ByteBuffer records, int index) {
+        return records.getInt(index * RECORD_SIZE + 12);
+    }
+
+    static int type(ByteBuffer records, int index) {
+        return records.getInt(index * RECORD_SIZE + 16);
+    }
+
+    static int x(ByteBuffer records, int index) {
+        return records.getInt(index * RECORD_SIZE + 20);
+    }
+
+    static int z(ByteBuffer records, int index) {
+        return records.getInt(index * RECORD_SIZE + 24);
+    }
+
+    static int y(ByteBuffer records, int index) {
+        return records.getShort(index * RECORD_SIZE + 28);
+    }
+
+    static byte action(ByteBuffer records, int index) {
+        return records.get(index * RECORD_SIZE + 30);
+    }
+
+    static long offset(ByteBuffer records, int index) {
+        return records.getLong(index * RECORD_SIZE + 32);
+    }
+
+    static LocalDate parseDay(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Sparse per-day summary used to skip whole days before their records are scanned.
+    public static final class DaySummary {
+        final long length;
+        final int[] players;
+        final long[] chunks;
+        final long minTimestamp;
+        final long maxTimestamp;
+
+        private DaySummary(long length, int[] players, long[] chunks, long minTimestamp, long maxTimestamp) {
+            this.length = length;
+            this.players = players;
+            this.chunks = chunks;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+        }
+
+        static DaySummary build(ByteBuffer records, long length) {
+            int count = records.capacity() / RECORD_SIZE;
+            int[] players = new int[count];
+            long[] chunks = new long[count];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                players[i] = player(records, i);
+                chunks[i] = chunkKey(world(records, i), x(records, i) >> 4, z(records, i) >> 4);
+                min = Math.min(min, timestamp(records, i));
+                max = Math.max(max, timestamp(records, i));
+            }
+            return new DaySummary(length, distinct(players), distinct(chunks), min, max);
+        }
+
+        boolean hasPlayer(int playerHash) {
+            return Arrays.binarySearch(players, playerHash) >= 0;
+        }
+
+        boolean hasChunkIn(int worldHash, int minCx, int minCz, int maxCx, int maxCz) {
+            long area = (long) (maxCx - minCx + 1) * (maxCz - minCz + 1);
+            if (area <= chunks.length) {
+                for (int cx = minCx; cx <= maxCx; cx++) {
+                    for (int cz = minCz; cz <= maxCz; cz++) {
+                        if (Arrays.binarySearch(chunks, chunkKey(worldHash, cx, cz)) >= 0) return true;
+                    }
+                }
+                return false;
+            }
+            long world = worldHash & 0xFFFFFL;
+            for (long key : chunks) {
+                int cx = (int) (key << 20 >> 42);
+                int cz = (int) (key << 42 >> 42);
+                if ((key >>> 44) == world && cx >= minCx && cx <= maxCx && cz >= minCz && cz <= maxCz) return true;
+            }
+            return false;
+        }
+
+        boolean overlaps(long since, long until) {
+            return maxTimestamp >= since && minTimestamp <= until;
+        }
+
+        static long chunkKey(int worldHash, int cx, int cz) {
+            return ((worldHash & 0xFFFFFL) << 44) | ((cx & 0x3FFFFFL) << 22) | (cz & 0x3FFFFFL);
+        }
+
+        private static int[] distinct(int[] values) {
+            Arrays.sort(values);
+            int size = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[i - 1]) values[size++] = values[i];
+            }
+            return Arrays.copyOf(values, size);
+        }
+
+        private static long[] distinct(long[] values) {
+            Arrays.sort(values);
+            int size = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[i - 1]) values[size++] = values[i];
+            }
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
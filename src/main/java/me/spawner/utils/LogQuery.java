@@ -0,0 +1,330 @@
+package me.spawner.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import me.spawner.Spawner;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+public class LogQuery {
+
+    public static final List<String> FILTERS = Arrays.asList("player:", "action:", "type:", "world:", "box:", "since:", "until:", "page:");
+
+    private static final int PAGE_SIZE = 10;
+    private static final int DEFAULT_DAYS = 7;
+    private static final int CHUNK_RECORDS = 4096;
+
+    private final Spawner plugin;
+    private final LogIndex index;
+    private final ExecutorService executor;
+
+    public LogQuery(Spawner plugin, LogIndex index) {
+        this.plugin = plugin;
+        this.index = index;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "SpawnerSystem-LogQuery");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    public void run(CommandSender sender, String[] args) {
+        Filter filter;
+        try {
+            filter = Filter.parse(args);
+        } catch (FilterException e) {
+            sender.sendMessage(getMessage(e.key).replace("%value%", e.value));
+            sender.sendMessage(getMessage("logs-usage"));
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    execute(sender, filter, args);
+                } catch (Exception e) {
+                    sender.sendMessage(getMessage("logs-query-failed").replace("%error%", String.valueOf(e.getMessage())));
+                    plugin.getLogger().warning("Log query failed: " + e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sender.sendMessage(getMessage("logs-unavailable"));
+        }
+    }
+
+    private void execute(CommandSender sender, Filter filter, String[] args) throws IOException {
+        long started = System.nanoTime();
+        int skip = (filter.page - 1) * PAGE_SIZE;
+        int wanted = skip + PAGE_SIZE + 1;
+
+        Map<LocalDate, List<Long>> hits = new LinkedHashMap<>();
+        int found = 0;
+        LocalDate day = toDay(filter.until);
+        LocalDate first = toDay(filter.since);
+        while (!day.isBefore(first) && found < wanted) {
+            if (index.hasData(day)) {
+                index.ensureIndexed(day);
+                LogIndex.DaySummary summary = index.summary(day);
+                if (filter.mayMatch(summary)) {
+                    // Newest first, a chunk of records at a time, stopping once the page is full.
+                    for (long end = index.recordCount(day); end > 0 && found < wanted; ) {
+                        int count = (int) Math.min(CHUNK_RECORDS, end);
+                        long start = end - count;
+                        ByteBuffer records = index.readRecords(day, start, count);
+                        for (int i = records.capacity() / LogIndex.RECORD_SIZE - 1; i >= 0 && found < wanted; i--) {
+                            if (!filter.matches(records, i)) continue;
+                            hits.computeIfAbsent(day, d -> new ArrayList<>()).add(LogIndex.offset(records, i));
+                            found++;
+                        }
+                        end = start;
+                    }
+                }
+            }
+            day = day.minusDays(1);
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Long>> entry : hits.entrySet()) {
+            lines.addAll(resolve(entry.getKey(), entry.getValue(), filter));
+        }
+
+        long millis = (System.nanoTime() - started) / 1_000_000L;
+        if (lines.size() <= skip) {
+            sender.sendMessage(getMessage("logs-none-found").replace("%ms%", String.valueOf(millis)));
+            return;
+        }
+
+        boolean hasMore = lines.size() > skip + PAGE_SIZE;
+        sender.sendMessage(getMessage("logs-page-header")
+                .replace("%page%", String.valueOf(filter.page))
+                .replace("%ms%", String.valueOf(millis)));
+        for (String line : lines.subList(skip, Math.min(lines.size(), skip + PAGE_SIZE))) {
+            sender.sendMessage(line);
+        }
+        if (hasMore) {
+            sender.sendMessage(getMessage("logs-next-page").replace("%args%", filter.nextPageArgs(args)));
+        }
+    }
+
+    private String getMessage(String key) {
+        LanguageCache cache = plugin.getLanguageCache();
+        if (cache == null) return key;
+        return cache.text("prefix", "&8[&aSpawner&8] &r") + " " + cache.text("messages." + key, key);
+    }
+
+    // Index records only carry hashes, so each hit is checked again against its real log line, read at its offset.
+    private List<String> resolve(LocalDate day, List<Long> offsets, Filter filter) throws IOException {
+        long[] sorted = new long[offsets.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = offsets.get(i);
+        }
+        Arrays.sort(sorted);
+        Map<Long, String> byOffset = LogArchiver.readLinesAt(index.getLogsFolder(), day, sorted);
+
+        List<String> resolved = new ArrayList<>();
+        for (long offset : offsets) {
+            String line = byOffset.get(offset);
+            if (line == null) continue;
+            JsonObject json;
+            try {
+                json = JsonParser.parseString(line).getAsJsonObject();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (!filter.confirms(json)) continue;
+            resolved.add(format(json));
+        }
+        return resolved;
+    }
+
+    private static String format(JsonObject json) {
+        return ChatColor.GRAY + text(json, "date") + " "
+                + ChatColor.WHITE + text(json, "player") + " "
+                + ("BROKE".equals(text(json, "action")) ? ChatColor.RED : ChatColor.GREEN) + text(json, "action") + " "
+                + ChatColor.AQUA + text(json, "spawnerType") + " "
+                + ChatColor.GRAY + text(json, "world") + " " + text(json, "x") + ", " + text(json, "y") + ", " + text(json, "z")
+                + ChatColor.DARK_GRAY + " (" + text(json, "platform") + ")";
+    }
+
+    private static String text(JsonObject json, String key) {
+        return json.has(key) && !json.get(key).isJsonNull() ? json.get(key).getAsString() : "?";
+    }
+
+    private static LocalDate toDay(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static final class Filter {
+        String player;
+        int playerHash;
+        byte action = -1;
+        String type;
+        int typeHash;
+        String world;
+        int worldHash;
+        boolean hasBox;
+        int minX, minY, minZ, maxX, maxY, maxZ;
+        long since;
+        long until;
+        int page = 1;
+
+        static Filter parse(String[] args) {
+            Filter filter = new Filter();
+            long now = System.currentTimeMillis();
+            filter.until = now;
+            boolean sinceGiven = false;
+
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                int colon = arg.indexOf(':');
+                if (colon <= 0) throw new FilterException("logs-unknown-filter", arg);
+                String key = arg.substring(0, colon).toLowerCase();
+                String value = arg.substring(colon + 1);
+
+                switch (key) {
+                    case "player":
+                        filter.player = value;
+                        filter.playerHash = LogIndex.hash(value);
+                        break;
+                    case "action":
+                        filter.action = LogIndex.actionCode(value);
+                        if (filter.action == LogIndex.ACTION_OTHER) throw new FilterException("logs-invalid-action", value);
+                        break;
+                    case "type":
+                        filter.type = value;
+                        filter.typeHash = LogIndex.hash(value);
+                        break;
+                    case "world":
+                        filter.world = value;
+                        filter.worldHash = LogIndex.hash(value);
+                        break;
+                    case "box":
+                        filter.parseBox(value);
+                        break;
+                    case "since":
+                        filter.since = parseTime(value, now, false);
+                        sinceGiven = true;
+                        break;
+                    case "until":
+                        filter.until = parseTime(value, now, true);
+                        break;
+                    case "page":
+                        try {
+                            filter.page = Math.max(1, Integer.parseInt(value));
+                        } catch (NumberFormatException e) {
+                            throw new FilterException("logs-invalid-page", value);
+                        }
+                        break;
+                    default:
+                        throw new FilterException("logs-unknown-filter", key);
+                }
+            }
+            if (!sinceGiven) {
+                filter.since = toDay(filter.until).minusDays(DEFAULT_DAYS).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            if (filter.hasBox && filter.world == null) throw new FilterException("logs-box-needs-world", "");
+            if (filter.since > filter.until) throw new FilterException("logs-since-after-until", "");
+            return filter;
+        }
+
+        private void parseBox(String value) {
+            String[] parts = value.split(",");
+            if (parts.length != 6) throw new FilterException("logs-invalid-box", value);
+            int[] v = new int[6];
+            try {
+                for (int i = 0; i < 6; i++) v[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new FilterException("logs-invalid-box", value);
+            }
+            hasBox = true;
+            minX = Math.min(v[0], v[3]);
+            maxX = Math.max(v[0], v[3]);
+            minY = Math.min(v[1], v[4]);
+            maxY = Math.max(v[1], v[4]);
+            minZ = Math.min(v[2], v[5]);
+            maxZ = Math.max(v[2], v[5]);
+        }
+
+        private static long parseTime(String value, long now, boolean endOfDay) {
+            String lower = value.toLowerCase();
+            try {
+                if (lower.endsWith("d")) return now - Long.parseLong(lower.substring(0, lower.length() - 1)) * 86_400_000L;
+                if (lower.endsWith("h")) return now - Long.parseLong(lower.substring(0, lower.length() - 1)) * 3_600_000L;
+            } catch (NumberFormatException e) {
+                throw new FilterException("logs-invalid-time", value);
+            }
+            LocalDate day = LogIndex.parseDay(value);
+            if (day == null) throw new FilterException("logs-invalid-time", value);
+            LocalDate start = endOfDay ? day.plusDays(1) : day;
+            long millis = start.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return endOfDay ? millis - 1 : millis;
+        }
+
+        boolean mayMatch(LogIndex.DaySummary summary) {
+            if (!summary.overlaps(since, until)) return false;
+            if (player != null && !summary.hasPlayer(playerHash)) return false;
+            return !hasBox || summary.hasChunkIn(worldHash, minX >> 4, minZ >> 4, maxX >> 4, maxZ >> 4);
+        }
+
+        boolean matches(ByteBuffer records, int i) {
+            long timestamp = LogIndex.timestamp(records, i);
+            if (timestamp < since || timestamp > until) return false;
+            if (player != null && LogIndex.player(records, i) != playerHash) return false;
+            if (action >= 0 && LogIndex.action(records, i) != action) return false;
+            if (type != null && LogIndex.type(records, i) != typeHash) return false;
+            if (world != null && LogIndex.world(records, i) != worldHash) return false;
+            if (hasBox) {
+                int x = LogIndex.x(records, i);
+                int y = LogIndex.y(records, i);
+                int z = LogIndex.z(records, i);
+                return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+            }
+            return true;
+        }
+
+        boolean confirms(JsonObject json) {
+            if (player != null && !player.equalsIgnoreCase(text(json, "player"))) return false;
+            if (type != null && !type.equalsIgnoreCase(text(json, "spawnerType"))) return false;
+            return world == null || world.equalsIgnoreCase(text(json, "world"));
+        }
+
+        String nextPageArgs(String[] args) {
+            StringBuilder next = new StringBuilder();
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].toLowerCase().startsWith("page:")) continue;
+                next.append(args[i]).append(' ');
+            }
+            return next.append("page:").append(page + 1).toString();
+        }
+    }
+
+    private static final class FilterException extends RuntimeException {
+        final String key;
+        final String value;
+
+        FilterException(String key, String value) {
+            super(key);
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
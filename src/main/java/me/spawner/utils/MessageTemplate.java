@@ -0,0 +1,97 @@
+package me.spawner.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class MessageTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String[] literals;
+    private final int[] slots;
+
+    private MessageTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    public static MessageTemplate compile(String raw, boolean colorize, String... placeholders) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        String text = raw != null ? raw : "";
+
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '%' ? text.indexOf('%', i + 1) : -1;
+            int slot = end > 0 ? indexOf(placeholders, text, i + 1, end) : -1;
+            if (slot < 0) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            literals.add(finish(literal, colorize));
+            slots.add(slot);
+            i = end + 1;
+        }
+        literals.add(finish(literal, colorize));
+
+        int[] slotArray = new int[slots.size()];
+        for (int s = 0; s < slotArray.length; s++) slotArray[s] = slots.get(s);
+        return new MessageTemplate(literals.toArray(new String[0]), slotArray);
+    }
+
+    public static List<MessageTemplate> compileAll(List<String> raw, boolean colorize, String... placeholders) {
+        List<MessageTemplate> compiled = new ArrayList<>(raw.size());
+        for (String line : raw) {
+            compiled.add(compile(line, colorize, placeholders));
+        }
+        return compiled;
+    }
+
+    public boolean isConstant() {
+        return slots.length == 0;
+    }
+
+    public String render(String... values) {
+        if (slots.length == 0) return literals[0];
+
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(out, values);
+        return out.toString();
+    }
+
+    public void renderTo(StringBuilder out, String... values) {
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String value = slots[i] < values.length ? values[slots[i]] : null;
+            out.append(value != null ? value : "").append(literals[i + 1]);
+        }
+    }
+
+    public static String renderLines(List<MessageTemplate> lines, String separator, String... values) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) out.append(separator);
+            lines.get(i).renderTo(out, values);
+        }
+        return out.toString();
+    }
+
+    private static String finish(StringBuilder literal, boolean colorize) {
+        String text = literal.toString();
+        literal.setLength(0);
+        return colorize ? ColorUtils.color(text) : text;
+    }
+
+    private static int indexOf(String[] placeholders, String text, int start, int end) {
+        for (int i = 0; i < placeholders.length; i++) {
+            String name = placeholders[i];
+            if (name.length() == end - start && text.regionMatches(start, name, 0, name.length())) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,87 @@
+package me.spawner.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+// Resolves whether a player joined through Floodgate/Geyser once at login, so logging and webhooks only do a map lookup.
+public class PlatformResolver implements Listener {
+
+    public static final String JAVA = "Java";
+    public static final String BEDROCK = "Bedrock";
+
+    private final Map<UUID, String> platforms = new ConcurrentHashMap<>();
+    private MethodHandle floodgateCheck;
+    private MethodHandle geyserCheck;
+
+    public void bind(Logger logger) {
+        floodgateCheck = bindCheck("org.geysermc.floodgate.api.FloodgateApi", "getInstance", "isFloodgatePlayer");
+        geyserCheck = bindCheck("org.geysermc.geyser.api.GeyserApi", "api", "isBedrockPlayer");
+        if (floodgateCheck != null || geyserCheck != null) {
+            logger.info("Bedrock players are detected through " + (floodgateCheck != null ? "Floodgate." : "Geyser."));
+        }
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            platforms.put(player.getUniqueId(), resolve(player.getUniqueId()));
+        }
+    }
+
+    public String get(Player player) {
+        String platform = platforms.get(player.getUniqueId());
+        if (platform != null) return platform;
+
+        platform = resolve(player.getUniqueId());
+        if (player.isOnline()) platforms.put(player.getUniqueId(), platform);
+        return platform;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        platforms.put(uuid, resolve(uuid));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        platforms.remove(event.getPlayer().getUniqueId());
+    }
+
+    private String resolve(UUID uuid) {
+        if (isBedrock(floodgateCheck, uuid) || isBedrock(geyserCheck, uuid)) return BEDROCK;
+        return JAVA;
+    }
+
+    private static boolean isBedrock(MethodHandle check, UUID uuid) {
+        if (check == null) return false;
+        try {
+            return (boolean) check.invokeExact(uuid);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    // Binds `api.<method>(UUID)` to the API singleton, giving a (UUID) -> boolean handle, or null if the plugin is absent.
+    private static MethodHandle bindCheck(String apiClass, String instanceMethod, String checkMethod) {
+        try {
+            Class<?> api = Class.forName(apiClass);
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Object instance = lookup.findStatic(api, instanceMethod, MethodType.methodType(api)).invoke();
+            if (instance == null) return null;
+            return lookup.findVirtual(api, checkMethod, MethodType.methodType(boolean.class, UUID.class)).bindTo(instance);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}